@@ -0,0 +1,71 @@
+package csp;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.infra.Blackhole;
+
+/**
+ * Benchmarks the revision of the arcs from a variable, as done after each assignment,
+ * and the support checks it is made of. The first variable is assigned its first value
+ * and every arc from it is revised, then the pruning is undone through the trail.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+public class ArcBenchmark {
+
+    @Param({"instances/8Queens.csp", "instances/langfords3_9.csp", "instances/FinnishSudoku.csp"})
+    public String instance;
+
+    // The solver revising the arcs, and the assigned variable they start from.
+    private Solver solver;
+    private BinaryVariable var;
+
+    /**
+     * Reads the instance and assigns the first variable.
+     */
+    @Setup
+    public void setup() {
+        BinaryCSP csp = new BinaryCSPReader().readBinaryCSP(instance);
+        solver = new FC(csp, VariableOrdering.ASCENDING, ValueOrdering.ASCENDING);
+        var = csp.getVar(0);
+        solver.assign(var, var.domain().first());
+    }
+
+    /**
+     * Revises every arc from the assigned variable with Solver.revise, then undoes the pruning.
+     */
+    @Benchmark
+    public int revise() {
+        int pruned = 0;
+        solver.trail.mark();
+        for (BinaryArc arc : solver.csp.futureArcs(var)) {
+            if (solver.revise(arc)) {
+                pruned++;
+            }
+        }
+        solver.undoPruning();
+        return pruned;
+    }
+
+    /**
+     * Checks the support of every future value of every arc from the assigned variable.
+     */
+    @Benchmark
+    public void isSupported(Blackhole blackhole) {
+        for (BinaryArc arc : solver.csp.futureArcs(var)) {
+            Domain domain = arc.future().domain();
+            for (int val = domain.first(); val != Domain.NONE; val = domain.next(val)) {
+                blackhole.consume(arc.isSupported(val));
+            }
+        }
+    }
+}
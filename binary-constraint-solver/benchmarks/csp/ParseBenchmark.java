@@ -0,0 +1,32 @@
+package csp;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks reading an instance with BinaryCSPReader.readBinaryCSP, from the file to
+ * the compiled arcs.
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class ParseBenchmark {
+
+    @Param({"instances/queens/14Queens.csp", "instances/langfords/langfords2_16.csp", "instances/FinnishSudoku.csp"})
+    public String instance;
+
+    /**
+     * Reads the instance.
+     */
+    @Benchmark
+    public BinaryCSP read() {
+        return new BinaryCSPReader().readBinaryCSP(instance);
+    }
+}
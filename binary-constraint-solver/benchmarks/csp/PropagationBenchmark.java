@@ -0,0 +1,65 @@
+package csp;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks arc consistency propagation with MAC.AC3, both from the root, where every
+ * variable is queued, and after the first variable is assigned its first value. The
+ * pruning is undone through the trail after each propagation.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+public class PropagationBenchmark {
+
+    @Param({"instances/8Queens.csp", "instances/langfords3_9.csp", "instances/FinnishSudoku.csp"})
+    public String instance;
+
+    @Param({"MAC", "MAC2001"})
+    public String algorithm;
+
+    // The solver propagating, and the variable assigned before propagating.
+    private MAC solver;
+    private BinaryVariable var;
+
+    /**
+     * Reads the instance and creates the solver.
+     */
+    @Setup
+    public void setup() {
+        BinaryCSP csp = new BinaryCSPReader().readBinaryCSP(instance);
+        solver = (MAC) Algorithm.valueOf(algorithm).create(csp, VariableOrdering.ASCENDING, ValueOrdering.ASCENDING);
+        var = csp.getVar(0);
+    }
+
+    /**
+     * Makes the whole CSP arc consistent from the root.
+     */
+    @Benchmark
+    public boolean root() {
+        boolean consistent = solver.AC3(null);
+        solver.undoPruning();
+        return consistent;
+    }
+
+    /**
+     * Propagates the assignment of the first variable.
+     */
+    @Benchmark
+    public boolean assignment() {
+        solver.assign(var, var.domain().first());
+        boolean consistent = solver.AC3(var);
+        solver.undoPruning();
+        solver.unassign(var);
+        return consistent;
+    }
+}
@@ -0,0 +1,66 @@
+package csp;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Benchmarks finding the first solution of the bundled instances, for each algorithm
+ * and variable ordering. Each solve starts from a fresh copy of the CSP, so the
+ * weights learnt by dom/wdeg do not carry over between invocations.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+public class SolveBenchmark {
+
+    @Param({"instances/queens/10Queens.csp", "instances/langfords3_9.csp", "instances/SimonisSudoku.csp"})
+    public String instance;
+
+    @Param({"BT", "FC", "MAC", "MAC2001"})
+    public String algorithm;
+
+    // The variable ordering, as given on the command line of SolveCSP.
+    @Param({"0", "1", "2", "3"})
+    public int ordering;
+
+    // The instance as read, which is copied for each solve.
+    private BinaryCSP csp;
+
+    // The solver for the next invocation.
+    private Solver solver;
+
+    /**
+     * Reads the instance.
+     */
+    @Setup(Level.Trial)
+    public void read() {
+        csp = new BinaryCSPReader().readBinaryCSP(instance);
+    }
+
+    /**
+     * Creates a solver on a fresh copy of the instance.
+     */
+    @Setup(Level.Invocation)
+    public void create() {
+        solver = Algorithm.valueOf(algorithm).create(csp.copy(), VariableOrdering.getOrdering(ordering),
+                ValueOrdering.ASCENDING);
+    }
+
+    /**
+     * Solves the instance.
+     */
+    @Benchmark
+    public int[] solve() {
+        solver.solve();
+        return solver.solution();
+    }
+}
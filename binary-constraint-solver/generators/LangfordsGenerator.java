@@ -1,13 +1,81 @@
+import java.io.IOException ;
+import java.util.Arrays ;
+
+import csp.BinaryCSPWriter ;
+
 public final class LangfordsGenerator {
+
+  /**
+   * Checks if a pair of positions for the first and last occurrences of 1 is allowed
+   * by the leading pair of the lexicographic constraint X <=lex g(X), for g the
+   * reversal of the sequence. The first occurrence can only equal its image when it
+   * is in the middle, which needs a sequence of odd length.
+   */
+  private static boolean reversalLeader(int seqLength, int first, int last) {
+    return first + last <= seqLength + (seqLength % 2) ;
+  }
+
+  /**
+   * Writes the instance in the compact .cspb format, with a difference constraint
+   * between neighbouring occurrences of an integer and != between every other pair,
+   * and the symmetry-breaking constraint if asked.
+   */
+  private static void writeCompact(int k, int n, boolean lex, String file) throws IOException {
+    int seqLength = k * n ;
+    int[] lower = new int[seqLength] ;
+    int[] upper = new int[seqLength] ;
+    Arrays.fill(lower, 1) ;
+    Arrays.fill(upper, seqLength) ;
+    try (BinaryCSPWriter writer = new BinaryCSPWriter(file, lower, upper)) {
+      for (int block = 1; block <= n; block++)
+        for (int i = 0; i < k; i++) {
+          if (i < k-1)
+            writer.difference((block-1)*k+i, (block-1)*k+i+1, block+1) ;
+          for (int j = block*k ; j < seqLength; j++)
+            writer.notEqual((block-1)*k+i, j) ;
+        }
+      if (lex && k > 1) {
+        long[][] rows = new long[seqLength][(seqLength+63)/64] ;
+        for (int first = 1; first <= seqLength; first++)
+          for (int last = 1; last <= seqLength; last++)
+            if (reversalLeader(seqLength, first, last))
+              rows[first-1][(last-1) >>> 6] |= 1L << (last-1) ;
+        writer.matrix(0, k-1, rows) ;
+      }
+    }
+  }
   
-  public static void main (String[] args) {
-    if (args.length != 2) {
-      System.out.println("Usage: java LangfordsGenerator <k> <n>") ;
+  public static void main (String[] args) throws IOException {
+    if (args.length < 2) {
+      System.out.println("Usage: java LangfordsGenerator <k> <n> [--lex] [--symmetries] [<file.cspb>]") ;
       System.out.println("for <k> sets of <n> integers") ;
       return ;
     }
     int k = Integer.parseInt(args[0]) ;
     int n = Integer.parseInt(args[1]) ;
+    boolean lex = false ;
+    boolean symmetries = false ;
+    String file = null ;
+    for (int i = 2; i < args.length; i++) {
+      if (args[i].equals("--lex"))
+        lex = true ;
+      else if (args[i].equals("--symmetries"))
+        symmetries = true ;
+      else if (file == null)
+        file = args[i] ;
+      else {
+        System.out.println("Usage: java LangfordsGenerator <k> <n> [--lex] [--symmetries] [<file.cspb>]") ;
+        return ;
+      }
+    }
+    if (file != null) {
+      if (symmetries) {
+        System.out.println("Symmetries cannot be written in the compact format.") ;
+        return ;
+      }
+      writeCompact(k, n, lex, file) ;
+      return ;
+    }
     System.out.println("//Langford, k = "+k+" n = "+n) ;
     
     int seqLength = k * n ;
@@ -17,7 +85,7 @@ public final class LangfordsGenerator {
     for (int i = 0; i < seqLength; i++)
       System.out.println("1, "+seqLength) ;
     
-    System.out.println("\n// constraints (vars indexed from 0, allowed tuples):") ;
+    System.out.println("\n// constraints (vars indexed from 0, allowed tuples or kind):") ;
 
     // iterate over the n blocks of k positions
     for (int block = 1; block <= n; block++)
@@ -34,15 +102,34 @@ public final class LangfordsGenerator {
         }
         // constrain relative to future blocks to prevent same position being used twice
         // find start of next block
-        for (int j = block*k ; j < seqLength; j++) {
-          System.out.println("c("+((block-1)*k+i)+", "+j+")") ;
-          for (int val1 = 1; val1 <= seqLength; val1++)
-            for (int val2 = 1; val2 <= seqLength; val2++)
-              if (val1 != val2)
-                System.out.println(val1+", "+val2) ;
-          System.out.println() ;
-        }
+        for (int j = block*k ; j < seqLength; j++)
+          System.out.println("c("+((block-1)*k+i)+", "+j+"): neq") ;
       }
-    
+
+    if (lex && k > 1) {
+      // The leading pair of X <=lex g(X) for the reversal of the sequence, comparing
+      // the first occurrence of 1 with the image of its last occurrence. It is exact
+      // for sequences of even length, where no position is its own image.
+      System.out.println("// symmetry breaking (lexicographic leader):") ;
+      System.out.println("c(0, "+(k-1)+")") ;
+      for (int first = 1; first <= seqLength; first++)
+        for (int last = 1; last <= seqLength; last++)
+          if (reversalLeader(seqLength, first, last))
+            System.out.println(first+", "+last) ;
+      System.out.println() ;
+    }
+
+    if (symmetries) {
+      // The reversal swaps the occurrences of each integer and reverses the positions.
+      StringBuilder vars = new StringBuilder() ;
+      StringBuilder vals = new StringBuilder() ;
+      for (int block = 1; block <= n; block++)
+        for (int i = 0; i < k; i++)
+          vars.append(vars.length() == 0 ? "" : ", ").append((block-1)*k+(k-1-i)) ;
+      for (int pos = seqLength; pos >= 1; pos--)
+        vals.append(pos == seqLength ? "" : ", ").append(pos) ;
+      System.out.println("// symmetries (image of each variable, then of each value):") ;
+      System.out.println("s("+vars+"): "+vals) ;
+    }
   }
 }
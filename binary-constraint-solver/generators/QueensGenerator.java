@@ -1,28 +1,143 @@
+import java.io.IOException ;
+import java.util.Arrays ;
+
+import csp.BinaryCSPWriter ;
+
 public final class QueensGenerator {
-  public static void main (String[] args) {
-    if (args.length != 1) {
-      System.out.println("Usage: java QueensGenerator <n>") ;
+
+  /**
+   * Checks if a pair of columns for the first two rows is allowed by the leading
+   * pair of the lexicographic constraint X <=lex g(X), for g the reflection of
+   * the columns. The first row can only equal its image in the middle column, and
+   * then the second row, in another column, decides.
+   */
+  private static boolean columnsLeader(int n, int col0, int col1) {
+    return col0 < n-1-col0 || (col0 == n-1-col0 && col1 < n-1-col1) ;
+  }
+
+  /**
+   * Checks if a pair of columns for the first and last rows is allowed by the
+   * leading pair of the lexicographic constraint X <=lex g(X), for g the half turn.
+   */
+  private static boolean halfTurnLeader(int n, int col0, int colLast) {
+    return col0 <= n-1-colLast ;
+  }
+
+  /**
+   * Compiles the allowed pairs of columns of a symmetry-breaking constraint into
+   * a bit-matrix, one row per column of the first variable.
+   */
+  private static long[][] matrix(int n, boolean halfTurn) {
+    long[][] rows = new long[n][(n+63)/64] ;
+    for (int col1 = 0; col1 < n; col1++)
+      for (int col2 = 0; col2 < n; col2++)
+        if (halfTurn ? halfTurnLeader(n, col1, col2) : columnsLeader(n, col1, col2))
+          rows[col1][col2 >>> 6] |= 1L << col2 ;
+    return rows ;
+  }
+
+  /**
+   * Writes the instance in the compact .cspb format, as a != and a diagonal
+   * constraint on each pair of rows, and the symmetry-breaking constraints if asked.
+   */
+  private static void writeCompact(int n, boolean lex, String file) throws IOException {
+    int[] lower = new int[n] ;
+    int[] upper = new int[n] ;
+    Arrays.fill(upper, n-1) ;
+    try (BinaryCSPWriter writer = new BinaryCSPWriter(file, lower, upper)) {
+      for (int row1 = 0; row1 < n-1; row1++)
+        for (int row2 = row1+1; row2 < n; row2++) {
+          writer.notEqual(row1, row2) ;
+          writer.distanceNotEqual(row1, row2, row2-row1) ;
+        }
+      if (lex && n > 1) {
+        writer.lessThan(0, n-1) ;
+        writer.matrix(0, 1, matrix(n, false)) ;
+        writer.matrix(0, n-1, matrix(n, true)) ;
+      }
+    }
+  }
+
+  public static void main (String[] args) throws IOException {
+    if (args.length < 1) {
+      System.out.println("Usage: java QueensGenerator <n> [--lex] [--symmetries] [<file.cspb>]") ;
       return ;
     }
     int n = Integer.parseInt(args[0]) ;
+    boolean lex = false ;
+    boolean symmetries = false ;
+    String file = null ;
+    for (int i = 1; i < args.length; i++) {
+      if (args[i].equals("--lex"))
+        lex = true ;
+      else if (args[i].equals("--symmetries"))
+        symmetries = true ;
+      else if (file == null)
+        file = args[i] ;
+      else {
+        System.out.println("Usage: java QueensGenerator <n> [--lex] [--symmetries] [<file.cspb>]") ;
+        return ;
+      }
+    }
+    if (file != null) {
+      if (symmetries) {
+        System.out.println("Symmetries cannot be written in the compact format.") ;
+        return ;
+      }
+      writeCompact(n, lex, file) ;
+      return ;
+    }
     System.out.println("//"+n+"-Queens.") ;
     System.out.println("\n// Number of variables:\n"+n) ;
     System.out.println("\n// Domains of the variables: 0.. (inclusive)") ;
     for (int i = 0; i < n; i++)
       System.out.println("0, "+(n-1)) ;
-    System.out.println("\n// constraints (vars indexed from 0, allowed tuples):") ;
+    System.out.println("\n// constraints (vars indexed from 0, allowed tuples or kind):") ;
     
+    // Two rows are in different columns and not on a diagonal, which the reader
+    // combines into one intensional constraint per pair of rows.
     for (int row1 = 0; row1 < n-1; row1++)
       for (int row2 = row1+1; row2 < n; row2++) {
-        System.out.println("c("+row1+", "+row2+")") ;
+        System.out.println("c("+row1+", "+row2+"): neq") ;
+        System.out.println("c("+row1+", "+row2+"): dist "+(row2-row1)) ;
+      }
+    System.out.println() ;
+
+    if (lex && n > 1) {
+      // The leading pairs of X <=lex g(X) for the reflections of the rows and of
+      // the columns, and the half turn. Two rows never share a column, so the
+      // first two are exact, and the third only compares the first and last rows.
+      System.out.println("// symmetry breaking (lexicographic leader):") ;
+      System.out.println("c(0, "+(n-1)+"): lt\n") ;
+      System.out.println("c(0, 1)") ;
+      for (int col0 = 0; col0 < n; col0++)
         for (int col1 = 0; col1 < n; col1++)
-          for (int col2 = 0; col2 < n; col2++) {
-            if ((col1 != col2) &&
-                (Math.abs(col1 - col2) != (row2-row1))) {
-              System.out.println(col1+", "+col2) ;
-            }
-          }
-        System.out.println() ;
+          if (columnsLeader(n, col0, col1))
+            System.out.println(col0+", "+col1) ;
+      System.out.println() ;
+      System.out.println("c(0, "+(n-1)+")") ;
+      for (int col0 = 0; col0 < n; col0++)
+        for (int colLast = 0; colLast < n; colLast++)
+          if (halfTurnLeader(n, col0, colLast))
+            System.out.println(col0+", "+colLast) ;
+      System.out.println() ;
+    }
+
+    if (symmetries) {
+      // The image of each row, then of each column, for the same three symmetries.
+      StringBuilder rows = new StringBuilder() ;
+      StringBuilder reflected = new StringBuilder() ;
+      StringBuilder columns = new StringBuilder() ;
+      for (int i = 0; i < n; i++) {
+        String separator = (i == 0) ? "" : ", " ;
+        rows.append(separator).append(i) ;
+        reflected.append(separator).append(n-1-i) ;
+        columns.append(separator).append(n-1-i) ;
       }
+      System.out.println("// symmetries (image of each variable, then of each value):") ;
+      System.out.println("s("+reflected+")") ;
+      System.out.println("s("+rows+"): "+columns) ;
+      System.out.println("s("+reflected+"): "+columns) ;
+    }
   }
 }
@@ -1,18 +1,38 @@
+import java.io.IOException ;
+import java.util.Arrays ;
+
+import csp.BinaryCSPWriter ;
+
 public final class SudokuGenerator {
   
   /**
-   * The constraint is always the same != on 1..9 Only the
+   * Writes the instance in the compact .cspb format, where each constraint is a
+   * single != record. Clues can be added by narrowing the domains of the variables.
    */
-  private static void diseqTuples() {
-    for (int val1 = 1; val1 <= 9; val1++)
-      for (int val2 = 1; val2 <= 9; val2++)
-        if (val1 != val2)
-          System.out.println(val1+", "+val2) ;
+  private static void writeCompact(String file) throws IOException {
+    int[] lower = new int[81] ;
+    int[] upper = new int[81] ;
+    Arrays.fill(lower, 1) ;
+    Arrays.fill(upper, 9) ;
+    try (BinaryCSPWriter writer = new BinaryCSPWriter(file, lower, upper)) {
+      for (int cell1 = 0; cell1 < 81; cell1++)
+        for (int cell2 = cell1+1; cell2 < 81; cell2++) {
+          int row1 = cell1 / 9, col1 = cell1 % 9 ;
+          int row2 = cell2 / 9, col2 = cell2 % 9 ;
+          if (row1 == row2 || col1 == col2 ||
+              (row1 / 3 == row2 / 3 && col1 / 3 == col2 / 3))
+            writer.notEqual(cell1, cell2) ;
+        }
+    }
   }
-  
-  public static void main (String[] args) {
-    if (args.length != 0) {
-      System.out.println("Usage: java SudokuGenerator") ;
+
+  public static void main (String[] args) throws IOException {
+    if (args.length > 1) {
+      System.out.println("Usage: java SudokuGenerator [<file.cspb>]") ;
+      return ;
+    }
+    if (args.length == 1) {
+      writeCompact(args[0]) ;
       return ;
     }
     System.out.println("//Sudoku.") ;
@@ -21,16 +41,14 @@ public final class SudokuGenerator {
     System.out.println("\n// Edit the following to provide clues") ;
     for (int i = 0; i < 81; i++)
       System.out.println("1, 9") ;
-    System.out.println("\n// constraints (vars indexed from 0, allowed tuples):") ;
+    System.out.println("\n// constraints (vars indexed from 0, allowed tuples or kind):") ;
  
     // Rows
     for (int row = 1; row <= 9; row++) {
       System.out.println("//Row: "+row) ;
       for (int col1 = 1; col1 <= 8; col1++)
         for (int col2 = col1+1; col2 <= 9; col2++) {
-          System.out.println("c("+((row-1)*9+col1-1)+", "+((row-1)*9+col2-1)+")") ;
-          diseqTuples() ;
-          System.out.println() ;
+          System.out.println("c("+((row-1)*9+col1-1)+", "+((row-1)*9+col2-1)+"): neq") ;
         }
     }
     
@@ -39,9 +57,7 @@ public final class SudokuGenerator {
       System.out.println("//Col: "+col) ;
       for (int row1 = 1; row1 <= 8; row1++)
         for (int row2 = row1+1; row2 <= 9; row2++) {
-          System.out.println("c("+((row1-1)*9+col-1)+", "+((row2-1)*9+col-1)+")") ;
-          diseqTuples() ;
-          System.out.println() ;
+          System.out.println("c("+((row1-1)*9+col-1)+", "+((row2-1)*9+col-1)+"): neq") ;
         }
     }
     
@@ -57,9 +73,7 @@ public final class SudokuGenerator {
                 // break symmetry: only allow cell1 != cell2 where cell1 is less than cell2 in
                 //   the row-wise ordering of the subsquare
                 if ((row2 > row1) || (col2 > col1)) {
-                  System.out.println("c("+((row1-1)*9+col1-1)+", "+((row2-1)*9+col2-1)+")") ;
-                  diseqTuples() ;
-                  System.out.println() ;
+                  System.out.println("c("+((row1-1)*9+col1-1)+", "+((row2-1)*9+col2-1)+"): neq") ;
                 }
               }
       }
@@ -0,0 +1,262 @@
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.nio.file.DirectoryStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.ScheduledFuture;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+import csp.Algorithm;
+import csp.BinaryCSP;
+import csp.BinaryCSPReader;
+import csp.Solver;
+import csp.ValueOrdering;
+import csp.VariableOrdering;
+
+/**
+ * Solves many CSP instances within one JVM, on a bounded pool of worker threads, and
+ * writes one row of results per instance to a CSV file. The instances are taken from a
+ * directory (every .csp and .cspb file in it) or a manifest (one path per line,
+ * relative to the manifest). They are read one at a time as workers become free, so
+ * at most one instance per worker is held in memory. Each search is cancelled through
+ * the stop flag of its solver once it exceeds the timeout.
+ */
+public class BatchSolve {
+
+    private static final String USAGE = "Usage: java BatchSolve <BT/FC/MAC/MAC2001> <directory/manifest> <variable_ordering>"
+            + " <results.csv> [--value-ordering <value_ordering>] [--threads <threads>] [--timeout <ms>]";
+
+    // The statuses of an instance.
+    private static final String[] STATUSES = {"SOLVED", "UNSATISFIABLE", "TIMEOUT", "ERROR"};
+    private static final int SOLVED = 0, UNSATISFIABLE = 1, TIMEOUT = 2, ERROR = 3;
+
+    // The algorithm and heuristics used for every instance.
+    private final Algorithm algorithm;
+    private final VariableOrdering ordering;
+    private final ValueOrdering valueOrdering;
+
+    // The time limit of each search in milliseconds, or 0 for none.
+    private final long timeout;
+
+    // The results file, written by every worker.
+    private final PrintWriter results;
+
+    // Cancels the searches that run out of time.
+    private final ScheduledExecutorService timer;
+
+    // The number of instances with each status.
+    private final AtomicIntegerArray counts;
+
+    /**
+     * Main method to solve a batch of binary CSPs.
+     */
+    public static void main(String[] args) {
+        if (args.length < 4) {
+            System.out.println(USAGE);
+            return;
+        }
+        Algorithm algorithm;
+        try {
+            algorithm = Algorithm.valueOf(args[0]);
+        } catch (IllegalArgumentException e) {
+            System.out.println(USAGE);
+            return;
+        }
+        VariableOrdering ordering = VariableOrdering.getOrdering(Integer.parseInt(args[2]));
+
+        // Read the options.
+        ValueOrdering valueOrdering = ValueOrdering.ASCENDING;
+        int threads = Runtime.getRuntime().availableProcessors();
+        long timeout = 0;
+        for (int i = 4; i < args.length; i++) {
+            if (i + 1 == args.length) {
+                System.out.println(USAGE);
+                return;
+            }
+            String option = args[i];
+            String value = args[++i];
+            switch (option) {
+                case "--value-ordering":
+                    valueOrdering = ValueOrdering.getOrdering(Integer.parseInt(value));
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(value);
+                    break;
+                case "--timeout":
+                    timeout = Long.parseLong(value);
+                    break;
+                default:
+                    System.out.println(USAGE);
+                    return;
+            }
+        }
+
+        long start = System.nanoTime();
+        try (PrintWriter results = new PrintWriter(Files.newBufferedWriter(Paths.get(args[3])))) {
+            BatchSolve batch = new BatchSolve(algorithm, ordering, valueOrdering, timeout, results);
+            batch.solveAll(Paths.get(args[1]), threads);
+            System.out.println("Solved: " + batch.counts.get(SOLVED) + ", Unsatisfiable: " + batch.counts.get(UNSATISFIABLE)
+                    + ", Timeout: " + batch.counts.get(TIMEOUT) + ", Error: " + batch.counts.get(ERROR));
+            System.out.println("Batch Time: " + (System.nanoTime() - start) / 1_000_000.0 + " ms");
+        } catch (IOException e) {
+            System.out.println(e);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+
+    /**
+     * Creates a new batch.
+     *
+     * @param algorithm The algorithm.
+     * @param ordering The variable ordering heuristic.
+     * @param valueOrdering The value ordering heuristic.
+     * @param timeout The time limit of each search in milliseconds, or 0 for none.
+     * @param results The results file.
+     */
+    public BatchSolve(Algorithm algorithm, VariableOrdering ordering, ValueOrdering valueOrdering, long timeout,
+            PrintWriter results) {
+        this.algorithm = algorithm;
+        this.ordering = ordering;
+        this.valueOrdering = valueOrdering;
+        this.timeout = timeout;
+        this.results = results;
+        this.timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "batch-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        this.counts = new AtomicIntegerArray(STATUSES.length);
+    }
+
+    /**
+     * Solves every instance of a directory or manifest, returning once all have been
+     * solved or have timed out.
+     *
+     * @param source The directory or manifest.
+     * @param threads The number of worker threads.
+     * @throws IOException If the directory or manifest cannot be read.
+     * @throws InterruptedException If interrupted while waiting for the workers.
+     */
+    public void solveAll(Path source, int threads) throws IOException, InterruptedException {
+        results.println("file,status,loadTime,solveTime,searchNodes,arcRevisions,constraintChecks,error");
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+
+        // A worker must be free before the next instance is submitted, which bounds the
+        // number of instances in memory.
+        Semaphore free = new Semaphore(threads);
+        try {
+            if (Files.isDirectory(source)) {
+                try (DirectoryStream<Path> files = Files.newDirectoryStream(source, "*.{csp,cspb}")) {
+                    for (Path file : files) {
+                        submit(pool, free, file);
+                    }
+                }
+            } else {
+                try (BufferedReader manifest = Files.newBufferedReader(source)) {
+                    Path directory = source.toAbsolutePath().getParent();
+                    for (String line = manifest.readLine(); line != null; line = manifest.readLine()) {
+                        line = line.trim();
+                        if (!line.isEmpty() && !line.startsWith("//")) {
+                            submit(pool, free, directory.resolve(line));
+                        }
+                    }
+                }
+            }
+        } finally {
+            pool.shutdown();
+            pool.awaitTermination(Long.MAX_VALUE, TimeUnit.NANOSECONDS);
+            timer.shutdownNow();
+        }
+    }
+
+    /**
+     * Submits an instance to the pool once a worker is free.
+     *
+     * @param pool The pool.
+     * @param free The free workers.
+     * @param file The instance.
+     * @throws InterruptedException If interrupted while waiting for a worker.
+     */
+    private void submit(ExecutorService pool, Semaphore free, Path file) throws InterruptedException {
+        free.acquire();
+        pool.execute(() -> {
+            try {
+                solve(file);
+            } finally {
+                free.release();
+            }
+        });
+    }
+
+    /**
+     * Reads and solves an instance, writing its row of results.
+     *
+     * @param file The instance.
+     */
+    private void solve(Path file) {
+        BinaryCSPReader reader = new BinaryCSPReader();
+        Solver solver = null;
+        String error = null;
+        int status;
+        try {
+            BinaryCSP csp = reader.read(file.toString());
+            solver = algorithm.create(csp, ordering, valueOrdering);
+            AtomicBoolean stop = new AtomicBoolean(false);
+            solver.setStop(stop);
+            ScheduledFuture<?> cancel = null;
+            if (timeout > 0) {
+                cancel = timer.schedule(() -> stop.set(true), timeout, TimeUnit.MILLISECONDS);
+            }
+            solver.solve();
+            if (cancel != null) {
+                cancel.cancel(false);
+            }
+            if (solver.solution() != null) {
+                status = SOLVED;
+            } else {
+                // The timer may fire just after a complete search, which then never saw it.
+                status = solver.interrupted() ? TIMEOUT : UNSATISFIABLE;
+            }
+        } catch (IOException | RuntimeException e) {
+            System.out.println(file + ": " + e);
+            error = e.toString();
+            solver = null;
+            status = ERROR;
+        }
+        counts.incrementAndGet(status);
+
+        // Write the row of results.
+        StringBuilder row = new StringBuilder();
+        row.append(quote(file.toString())).append(',').append(STATUSES[status]).append(',').append(reader.loadTime() / 1_000_000.0);
+        if (solver != null) {
+            row.append(',').append(solver.solveTime() / 1_000_000.0).append(',').append(solver.searchNodes())
+                    .append(',').append(solver.arcRevisions()).append(',').append(solver.constraintChecks()).append(',');
+        } else {
+            row.append(",,,,,").append(quote(error));
+        }
+        synchronized (results) {
+            results.println(row);
+            results.flush();
+        }
+    }
+
+    /**
+     * Quotes a field of the results as RFC 4180 requires, doubling any quotes in it, so
+     * that commas, quotes and line breaks in a path or an error keep the row intact.
+     *
+     * @param field The field.
+     * @return The quoted field.
+     */
+    private static String quote(String field) {
+        return '"' + field.replace("\"", "\"\"") + '"';
+    }
+}
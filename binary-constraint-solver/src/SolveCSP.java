@@ -1,35 +1,312 @@
+import java.io.IOException;
+
+import csp.Algorithm;
+import csp.BT;
+import csp.BinaryCSP;
+import csp.BinaryCSPReader;
+import csp.BranchingSolver;
+import csp.Checkpoint;
+import csp.Decomposition;
+import csp.FC;
+import csp.MAC;
+import csp.ParallelSearch;
+import csp.Portfolio;
+import csp.Preprocessing;
+import csp.RestartPolicy;
+import csp.SearchStatistics;
+import csp.Solver;
+import csp.ValueOrdering;
+import csp.VariableOrdering;
+
 public class SolveCSP {
 
+    private static final String USAGE = "Usage: java SolveCSP <BT/FC/MAC/MAC2001/PORTFOLIO> <file.csp> <variable_ordering>"
+            + " [--value-ordering <value_ordering>] [--seed <seed>] [--threads <threads>] [--solutions <limit>]"
+            + " [--restarts <restart_policy>] [--preprocess <preprocessing>] [--preprocess-time <ms>]"
+            + " [--stats <file.json/file.csv>] [--stats-interval <ms>] [--decompose]"
+            + " [--backjumping] [--checkpoint <file>] [--checkpoint-interval <ms>] [--resume <file>]"
+            + " [--break-symmetries] [--print-solutions]";
+
     /**
      * Main method to solve a binary CSP.
      */
     public static void main(String[] args) {
-        if (args.length != 3) {
-            System.out.println("Usage: java SolveCSP <BT/FC/MAC> <file.csp> <true/false>");
+        if (args.length < 3) {
+            System.out.println(USAGE);
             return;
         }
         String algorithm = args[0];
         String CSPLocation = args[1];
         VariableOrdering ordering = VariableOrdering.getOrdering(Integer.parseInt(args[2]));
 
+        // Read the options.
+        ValueOrdering valueOrdering = ValueOrdering.ASCENDING;
+        long seed = 0;
+        int threads = 1;
+        long solutionLimit = 1;
+        RestartPolicy restartPolicy = RestartPolicy.NONE;
+        Preprocessing preprocessing = Preprocessing.NONE;
+        long preprocessingBudget = 0;
+        String statisticsFile = null;
+        long sampleInterval = 0;
+        boolean printSolutions = false;
+        boolean decompose = false;
+        boolean backjumping = false;
+        String checkpointFile = null;
+        long checkpointInterval = 60_000;
+        String resumeFile = null;
+        boolean breakSymmetries = false;
+        for (int i = 3; i < args.length; i++) {
+            if (args[i].equals("--print-solutions")) {
+                printSolutions = true;
+                continue;
+            }
+            if (args[i].equals("--decompose")) {
+                decompose = true;
+                continue;
+            }
+            if (args[i].equals("--backjumping")) {
+                backjumping = true;
+                continue;
+            }
+            if (args[i].equals("--break-symmetries")) {
+                breakSymmetries = true;
+                continue;
+            }
+            if (i + 1 == args.length) {
+                System.out.println(USAGE);
+                return;
+            }
+            String option = args[i];
+            String value = args[++i];
+            switch (option) {
+                case "--value-ordering":
+                    valueOrdering = ValueOrdering.getOrdering(Integer.parseInt(value));
+                    break;
+                case "--seed":
+                    seed = Long.parseLong(value);
+                    break;
+                case "--threads":
+                    threads = Integer.parseInt(value);
+                    break;
+                case "--solutions":
+                    solutionLimit = Long.parseLong(value);
+                    break;
+                case "--restarts":
+                    restartPolicy = RestartPolicy.getPolicy(Integer.parseInt(value));
+                    break;
+                case "--preprocess":
+                    preprocessing = Preprocessing.getPreprocessing(Integer.parseInt(value));
+                    break;
+                case "--preprocess-time":
+                    preprocessingBudget = Long.parseLong(value);
+                    break;
+                case "--stats":
+                    statisticsFile = value;
+                    break;
+                case "--stats-interval":
+                    sampleInterval = Long.parseLong(value);
+                    break;
+                case "--checkpoint":
+                    checkpointFile = value;
+                    break;
+                case "--checkpoint-interval":
+                    checkpointInterval = Long.parseLong(value);
+                    break;
+                case "--resume":
+                    resumeFile = value;
+                    break;
+                default:
+                    System.out.println(USAGE);
+                    return;
+            }
+        }
+
         BinaryCSPReader reader = new BinaryCSPReader();
         BinaryCSP csp = reader.readBinaryCSP(CSPLocation);
+        if (csp == null) {
+            return;
+        }
+        double loadTime = reader.loadTime() / 1_000_000.0;
+        double rate = reader.bytesRead() / (loadTime * 1000.0);
+        System.out.println("Load Time: " + loadTime + " ms (" + reader.bytesRead() + " bytes, "
+                + String.format("%.1f", rate) + " MB/s)");
+        if (algorithm.equals("PORTFOLIO")) {
+            if (statisticsFile != null) {
+                System.out.println("Statistics are not supported by the portfolio.");
+                return;
+            }
+            if (checkpointFile != null || resumeFile != null) {
+                System.out.println("Checkpoints are not supported by the portfolio.");
+                return;
+            }
+            if (breakSymmetries) {
+                System.out.println("Symmetry breaking is not supported by the portfolio.");
+                return;
+            }
+            if (solutionLimit != 1 || printSolutions) {
+                System.out.println("The portfolio only finds one solution.");
+                return;
+            }
+            if (threads != 1 || decompose) {
+                System.out.println("The portfolio runs one thread per configuration, with no threads or decomposition of its own.");
+                return;
+            }
+            if (valueOrdering != ValueOrdering.ASCENDING || seed != 0 || restartPolicy != RestartPolicy.NONE
+                    || preprocessing != Preprocessing.NONE || preprocessingBudget != 0 || backjumping) {
+                System.out.println("The portfolio uses the settings of its configurations, so value orderings, seeds,"
+                        + " restarts, preprocessing and backjumping are not supported.");
+                return;
+            }
+            Portfolio portfolio = Portfolio.defaultPortfolio(csp);
+            portfolio.solve();
+            if (portfolio.winner() != null) {
+                portfolio.winner().showSolution();
+            }
+            return;
+        }
+
         Solver solver;
+        try {
+            solver = Algorithm.valueOf(algorithm).create(csp, ordering, valueOrdering);
+        } catch (IllegalArgumentException e) {
+            System.out.println(USAGE);
+            return;
+        }
+        solver.setSeed(seed);
+        solver.setSolutionLimit(solutionLimit);
 
-        switch(algorithm) {
-            case "BT":
-                solver = new BT(csp, ordering);
-                break;
-            case "FC":
-                solver = new FC(csp, ordering);
-                break;
-            case "MAC":
-                solver = new MAC(csp, ordering);
-                break;
-            default:
-                System.out.println("Usage: java SolveCSP <BT/FC/MAC> <file.csp> <true/false>");
-                return;
-        }
-        solver.solve();
+        // Split the CSP into the components of its constraint graph, if it has several.
+        Decomposition decomposition = null;
+        if (decompose) {
+            decomposition = new Decomposition(csp);
+            System.out.println("Components: " + decomposition.size() + " (largest " + decomposition.largest()
+                    + " variables)");
+            if (decomposition.size() < 2) {
+                decomposition = null;
+            } else if (statisticsFile != null || (printSolutions && solutionLimit != 1)) {
+                System.out.println("Decomposition only supports printing the first solution, without statistics.");
+                return;
+            }
+        }
+        if (restartPolicy != RestartPolicy.NONE) {
+            if (!(solver instanceof MAC) || (threads > 1 && decomposition == null)) {
+                System.out.println("Restarts are only supported by sequential MAC and MAC2001.");
+                return;
+            }
+            ((MAC) solver).setRestartPolicy(restartPolicy);
+        }
+        if (backjumping) {
+            if (threads > 1 && decomposition == null) {
+                System.out.println("Backjumping is only supported by sequential BT and FC.");
+                return;
+            }
+            if (solver instanceof BT) {
+                ((BT) solver).setBackjumping(true);
+            } else if (solver instanceof FC) {
+                if (!((FC) solver).setBackjumping(true)) {
+                    System.out.println("Backjumping with FC is only supported for binary constraints.");
+                    return;
+                }
+            } else {
+                System.out.println("Backjumping is only supported by sequential BT and FC.");
+                return;
+            }
+        }
+        if (breakSymmetries) {
+            if (!(solver instanceof BranchingSolver) || backjumping || restartPolicy != RestartPolicy.NONE) {
+                System.out.println("Symmetry breaking is only supported by FC, MAC and MAC2001, without backjumping or restarts.");
+                return;
+            }
+            System.out.println("Symmetries: " + csp.symmetries().size());
+            ((BranchingSolver) solver).setSymmetryBreaking(true);
+        }
+        if (preprocessing != Preprocessing.NONE) {
+            if (!(solver instanceof MAC)) {
+                System.out.println("Preprocessing is only supported by MAC and MAC2001.");
+                return;
+            }
+            ((MAC) solver).setPreprocessing(preprocessing, preprocessingBudget);
+        }
+        if (printSolutions) {
+            solver.setSolutionListener((count, values) -> {
+                // Stream each solution on one line as it is found.
+                StringBuilder line = new StringBuilder("Solution " + count + ":");
+                for (int value : values) {
+                    line.append(' ').append(value);
+                }
+                System.out.println(line);
+            });
+        }
+        if (threads > 1 && !(solver instanceof BranchingSolver) && decomposition == null) {
+            System.out.println("Parallel search is only supported by FC and MAC.");
+            return;
+        }
+        SearchStatistics statistics = null;
+        if (statisticsFile != null) {
+            statistics = new SearchStatistics(csp.noVariables());
+            solver.setStatistics(statistics);
+            if (sampleInterval > 0) {
+                statistics.startSampling(solver, sampleInterval);
+            }
+        }
+
+        // Resume from a checkpoint, and write checkpoints as the search goes.
+        if (checkpointFile != null || resumeFile != null) {
+            if (threads > 1 || decomposition != null || restartPolicy != RestartPolicy.NONE) {
+                System.out.println("Checkpoints are only supported by sequential search without restarts.");
+                return;
+            }
+        }
+        if (resumeFile != null) {
+            Checkpoint resumed;
+            try {
+                resumed = Checkpoint.read(resumeFile);
+            } catch (IOException e) {
+                System.out.println(e);
+                return;
+            }
+            if (!resumed.matches(solver)) {
+                System.out.println("The checkpoint was written by another solver or for another CSP.");
+                return;
+            }
+            System.out.println("Resuming: " + resumed.depth() + " decisions, " + resumed.searchNodes() + " search nodes");
+            solver.resumeFrom(resumed);
+        }
+        Checkpoint checkpoint = null;
+        if (checkpointFile != null) {
+            checkpoint = new Checkpoint(checkpointFile);
+            solver.setCheckpoint(checkpoint);
+            checkpoint.start(checkpointInterval);
+        }
+
+        if (decomposition != null) {
+            // Each component is solved sequentially by a solver with the same settings.
+            decomposition.solve(solver, solver::componentSolver, threads);
+        } else if (threads > 1) {
+            new ParallelSearch(threads).solve((BranchingSolver) solver);
+        } else {
+            solver.solve();
+        }
+
+        // The search has finished, so its checkpoint is no longer needed.
+        if (checkpoint != null) {
+            try {
+                checkpoint.finish();
+            } catch (IOException e) {
+                System.out.println(e);
+            }
+        }
+        solver.showSolution();
+
+        // Export the detailed statistics of the search.
+        if (statistics != null) {
+            statistics.stopSampling();
+            try {
+                statistics.write(solver, statisticsFile);
+            } catch (IOException e) {
+                System.out.println(e);
+            }
+        }
     }
 }
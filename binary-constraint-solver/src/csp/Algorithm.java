@@ -0,0 +1,31 @@
+package csp;
+
+public enum Algorithm {
+    BT,
+    FC,
+    MAC,
+    MAC2001;
+
+    /**
+     * Creates a solver using this algorithm.
+     *
+     * @param csp The constraint satisfaction problem to be solved.
+     * @param ordering The variable ordering heuristic to be used.
+     * @param valueOrdering The value ordering heuristic to be used.
+     * @return The solver.
+     */
+    public Solver create(BinaryCSP csp, VariableOrdering ordering, ValueOrdering valueOrdering) {
+        switch (this) {
+            case BT:
+                return new BT(csp, ordering, valueOrdering);
+            case FC:
+                return new FC(csp, ordering, valueOrdering);
+            case MAC:
+                return new MAC(csp, ordering, valueOrdering);
+            case MAC2001:
+                return new MAC2001(csp, ordering, valueOrdering);
+            default:
+                throw new IllegalArgumentException("Invalid algorithm.");
+        }
+    }
+}
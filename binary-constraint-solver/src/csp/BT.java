@@ -0,0 +1,205 @@
+package csp;
+
+/**
+ * Backtracking (BT) solver.
+ */
+public class BT extends Solver {
+
+	// Whether the search uses conflict-directed backjumping, the conflict sets of each
+	// depth if it does, and the depth the search is jumping back to.
+	private boolean backjumping;
+	private ConflictSets conflicts;
+	private int jump;
+
+	/**
+	 * Creates a new backtracking solver for a given CSP.
+	 *
+	 * @param csp The constraint satisfaction problem to be solved.
+	 * @param ordering The variable ordering heuristic to be used.
+	 * @param valueOrdering The value ordering heuristic to be used.
+	 */
+	public BT(BinaryCSP csp, VariableOrdering ordering, ValueOrdering valueOrdering) {
+		super(csp, ordering, valueOrdering);
+		backjumping = false;
+	}
+
+	/**
+	 * Solves the CSP using backtracking. Variables are assigned in order, so the
+	 * variable at each depth is the variable of that order.
+	 */
+	public void solve() {
+		startTime = System.nanoTime();
+		if (backjumping) {
+			conflicts = new ConflictSets(csp.noVariables());
+			jump = csp.noVariables();
+		}
+		search();
+		endTime = System.nanoTime();
+	}
+
+	/**
+	 * Sets whether the search uses conflict-directed backjumping rather than
+	 * chronological backtracking.
+	 *
+	 * @param backjumping True to use conflict-directed backjumping.
+	 */
+	public void setBackjumping(boolean backjumping) {
+		this.backjumping = backjumping;
+	}
+
+	@Override
+	protected Solver newSolver(BinaryCSP csp) {
+		BT solver = new BT(csp, ordering, valueOrdering);
+		solver.setBackjumping(backjumping);
+		return solver;
+	}
+
+	@Override
+	protected boolean labelling() {
+		return true;
+	}
+
+	/**
+	 * With backjumping, the conflict set of a replayed choice point is unknown, so it
+	 * holds every earlier depth, which makes the search backtrack chronologically
+	 * from it.
+	 */
+	@Override
+	protected void replay(ChoicePoint cp) {
+		if (backjumping) {
+			conflicts.clear(depth);
+			conflicts.addEarlier(depth);
+		}
+	}
+
+	@Override
+	protected boolean leaf() {
+		if (stopped()) {
+			return true;
+		}
+		if (depth == csp.noVariables()) {
+			solutionFound();
+			if (backjumping) {
+				// Go back one level at a time, so that no other solution is skipped.
+				conflicts.addEarlier(depth - 1);
+			}
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	protected void choose(ChoicePoint cp) {
+		BinaryVariable var = csp.getVar(depth);
+		cp.set(var, Domain.NONE, orderedVals(var), trail.marks());
+		if (backjumping) {
+			conflicts.clear(depth);
+		}
+	}
+
+	/**
+	 * Assigns the next value of the variable and checks it against the earlier
+	 * variables. With backjumping, the variable it conflicts with is added to the
+	 * conflict set, or every other variable of a table constraint it violates.
+	 */
+	@Override
+	protected boolean branch(ChoicePoint cp) {
+		int level = depth;
+		depth++;
+		countNode(depth);
+		assign(cp.var, cp.nextVal());
+		int conflict = conflict(cp.var);
+		if (conflict >= 0) {
+			if (backjumping) {
+				conflicts.add(level, conflict);
+			}
+			return false;
+		}
+		TableConstraint table = violated(cp.var);
+		if (table != null) {
+			if (backjumping) {
+				for (BinaryVariable other : table.scope()) {
+					if (other != cp.var) {
+						conflicts.add(level, other.order());
+					}
+				}
+			}
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Unassigns the variable. With conflict-directed backjumping (BT-CBJ), once every
+	 * value has been tried, the search jumps back to the latest variable in the
+	 * conflict set, skipping the variables in between.
+	 */
+	@Override
+	protected boolean backtrack(ChoicePoint cp) {
+		unassign(cp.var);
+		depth--;
+		if (stopped()) {
+			return false;
+		}
+		if (!backjumping) {
+			return cp.hasNextVal();
+		}
+		if (jump < depth) {
+			// This variable played no part in the failure below, so jump past it.
+			return false;
+		}
+		jump = csp.noVariables();
+		if (cp.hasNextVal()) {
+			return true;
+		}
+		jump = conflicts.backjump(depth);
+		return false;
+	}
+
+	/**
+	 * Checks the value of a variable against the earlier variables it shares a
+	 * constraint with. Arcs to unassigned variables are not checked.
+	 *
+	 * @param var The variable that has just been assigned.
+	 * @return The order of the earliest assigned variable in conflict with it, or -1
+	 *         if the assignment is consistent.
+	 */
+	private int conflict(BinaryVariable var) {
+		int val = var.value();
+		// The arcs are sorted by the order of their future variable.
+		for (BinaryArc arc : csp.futureArcs(var)) {
+			BinaryVariable future = arc.future();
+			if (future.order() >= var.order()) {
+				break;
+			}
+			constraintChecks++;
+			if (!arc.allows(val, future.value())) {
+				return future.order();
+			}
+		}
+		return -1;
+	}
+
+	/**
+	 * Checks the table constraints on a variable whose other variables are all assigned,
+	 * which it completes.
+	 *
+	 * @param var The variable that has just been assigned.
+	 * @return A table constraint violated by the assignment, or null if there is none.
+	 */
+	private TableConstraint violated(BinaryVariable var) {
+		for (TableConstraint table : csp.tables(var)) {
+			boolean complete = true;
+			for (BinaryVariable other : table.scope()) {
+				complete &= other.assigned();
+			}
+			if (complete) {
+				constraintChecks++;
+				if (!table.isSatisfied()) {
+					return table;
+				}
+			}
+		}
+		return null;
+	}
+}
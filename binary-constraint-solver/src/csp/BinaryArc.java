@@ -0,0 +1,337 @@
+package csp;
+
+import java.io.IOException;
+
+/**
+ * Represents a binary arc. It stores the current and future variables of a
+ * constraint, which decides the pairs of values that are allowed. Extensional
+ * constraints list the allowed tuples, while intensional constraints compute them,
+ * and may revise the arc with a rule specific to the constraint rather than checking
+ * every future value.
+ */
+public abstract class BinaryArc {
+
+    // The current and future variables.
+    protected final BinaryVariable current, future;
+
+    // The reverse arc, sharing the same constraint.
+    private BinaryArc reverse;
+
+    // The weight of the constraint, increased each time it causes a domain wipeout.
+    private int weight;
+
+    // The index of the arc among the arcs of its CSP, set when the CSP is created.
+    private int index;
+
+    /**
+     * Creates a new binary arc.
+     *
+     * @param current Current variable.
+     * @param future Future variable.
+     */
+    protected BinaryArc(BinaryVariable current, BinaryVariable future) {
+        this.current = current;
+        this.future = future;
+        this.weight = 1;
+    }
+
+    /**
+     * Creates the reverse arc of the same constraint, from the future variable to the
+     * current variable.
+     *
+     * @return The reverse arc.
+     */
+    protected abstract BinaryArc createReverse();
+
+    /**
+     * Creates an arc of the same constraint between other variables. The arc is not
+     * linked to a reverse arc.
+     *
+     * @param current Current variable.
+     * @param future Future variable.
+     * @return The new arc.
+     */
+    protected abstract BinaryArc copyOnto(BinaryVariable current, BinaryVariable future);
+
+    /**
+     * Checks if a pair of values is allowed by the constraint.
+     *
+     * @param currentVal Value of the current variable.
+     * @param futureVal Value of the future variable.
+     * @return True if the pair is allowed, false otherwise.
+     */
+    public abstract boolean allows(int currentVal, int futureVal);
+
+    /**
+     * Copies the arc and its reverse onto copies of their variables. Constraints are
+     * never modified, so any compiled form is shared with the copy.
+     *
+     * @param current Copy of the current variable.
+     * @param future Copy of the future variable.
+     * @return The copied arc, linked to a copy of the reverse arc.
+     */
+    public BinaryArc copy(BinaryVariable current, BinaryVariable future) {
+        BinaryArc copy = copyOnto(current, future);
+        copy.weight = weight;
+        copy.reverse = reverse().copyOnto(future, current);
+        copy.reverse.reverse = copy;
+        copy.reverse.weight = weight;
+        return copy;
+    }
+
+    /**
+     * Combines the arc with another arc between the same variables, so that both
+     * constraints hold. By default, both are compiled into a single bit-matrix.
+     *
+     * @param other An arc with the same current and future variables.
+     * @return The combined arc, not linked to a reverse arc.
+     */
+    BinaryArc and(BinaryArc other) {
+        long[][] supports = supports();
+        long[][] otherSupports = other.supports();
+        for (int i = 0; i < supports.length; i++) {
+            for (int w = 0; w < supports[i].length; w++) {
+                supports[i][w] &= otherSupports[i][w];
+            }
+        }
+        return new ExtensionalArc(current, future, supports);
+    }
+
+    /**
+     * Compiles the constraint into a bit-matrix, with one row per value in the initial
+     * domain of the current variable, laid out like the domain of the future variable.
+     *
+     * @return The matrix, which the caller may modify.
+     */
+    long[][] supports() {
+        Domain currentDomain = current.domain();
+        Domain futureDomain = future.domain();
+        long[][] supports = new long[Math.max(0, currentDomain.upperBound() - currentDomain.lowerBound() + 1)][futureDomain.words().length];
+        for (int i = 0; i < supports.length; i++) {
+            for (int futureVal = futureDomain.lowerBound(); futureVal <= futureDomain.upperBound(); futureVal++) {
+                if (allows(currentDomain.lowerBound() + i, futureVal)) {
+                    int offset = futureVal - futureDomain.lowerBound();
+                    supports[i][offset >>> 6] |= 1L << offset;
+                }
+            }
+        }
+        return supports;
+    }
+
+    /**
+     * Writes the constraint to a .cspb file. By default, it is written as a bit-matrix.
+     *
+     * @param writer The writer.
+     * @throws IOException If an I/O error occurs.
+     */
+    void write(BinaryCSPWriter writer) throws IOException {
+        writer.matrix(current.order(), future.order(), supports());
+    }
+
+    /**
+     * Gets the current variable.
+     *
+     * @return the current variable
+     */
+    public BinaryVariable current() {
+        return current;
+    }
+
+    /**
+     * Gets the future variable.
+     *
+     * @return the future variable
+     */
+    public BinaryVariable future() {
+        return future;
+    }
+
+    /**
+     * Gets the index of the arc among the arcs of its CSP, which solvers use to keep
+     * data per arc in arrays.
+     *
+     * @return The index of the arc.
+     */
+    int index() {
+        return index;
+    }
+
+    /**
+     * Sets the index of the arc among the arcs of its CSP.
+     *
+     * @param index The index of the arc.
+     */
+    void setIndex(int index) {
+        this.index = index;
+    }
+
+    /**
+     * Gets the weight of the constraint, used by conflict-directed variable orderings.
+     *
+     * @return The weight of the constraint.
+     */
+    public int weight() {
+        return weight;
+    }
+
+    /**
+     * Increases the weight of the constraint after it caused a domain wipeout. The
+     * weight is shared by the arc and its reverse.
+     */
+    public void bumpWeight() {
+        weight++;
+        reverse().weight = weight;
+    }
+
+    /**
+     * Sets the weight of the constraint, restoring it from a checkpoint. The weight is
+     * shared by the arc and its reverse.
+     *
+     * @param weight The weight.
+     */
+    public void setWeight(int weight) {
+        this.weight = weight;
+        reverse().weight = weight;
+    }
+
+    /**
+     * Reverses the arc so (x, y) becomes (y, x). The reverse arc is created once and
+     * shared by later calls.
+     *
+     * @return The reversed arc.
+     */
+    public BinaryArc reverse() {
+        if (reverse == null) {
+            reverse = createReverse();
+            reverse.reverse = this;
+            reverse.weight = weight;
+        }
+        return reverse;
+    }
+
+    /**
+     * Gets the only value the current variable can take, if it is assigned or its
+     * domain has a single value.
+     *
+     * @return The value, or Domain.NONE if the current variable can take several values.
+     */
+    protected int currentSingleton() {
+        if (current.assigned()) {
+            return current.value();
+        }
+        Domain domain = current.domain();
+        return domain.size() == 1 ? domain.first() : Domain.NONE;
+    }
+
+    /**
+     * Checks if a value of the current variable has a support in the future domain.
+     *
+     * @param currentVal Value of the current variable.
+     * @return True if the value has a support, false otherwise.
+     */
+    public boolean hasSupport(int currentVal) {
+        Domain domain = future.domain();
+        for (int futureVal = domain.first(); futureVal != Domain.NONE; futureVal = domain.next(futureVal)) {
+            if (allows(currentVal, futureVal)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Counts the supports of a value of the current variable in the future domain.
+     *
+     * @param currentVal Value of the current variable.
+     * @return The number of future values supporting the value.
+     */
+    public int supportCount(int currentVal) {
+        Domain domain = future.domain();
+        int count = 0;
+        for (int futureVal = domain.first(); futureVal != Domain.NONE; futureVal = domain.next(futureVal)) {
+            if (allows(currentVal, futureVal)) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Checks if the value is supported in the future domain of this arc. The value is
+     * considered supported if it forms a valid tuple with the current variable's value,
+     * if it is assigned, or with any value in the current variable's domain.
+     *
+     * @param value Value to be tested.
+     * @return True if the value is supported, false otherwise.
+     */
+    public boolean isSupported(int value) {
+        if (current.assigned()) {
+            return allows(current.value(), value);
+        }
+        return reverse().hasSupport(value);
+    }
+
+    /**
+     * Revises the arc for a solver, pruning every value of the future variable that
+     * is not supported. By default, every future value is checked.
+     *
+     * @param solver The solver, which prunes values and counts constraint checks.
+     * @return True, if the domain of the future variable was pruned, false otherwise.
+     */
+    boolean revise(Solver solver) {
+        boolean pruned = false;
+        Domain domain = future.domain();
+        for (int futureVal = domain.first(); futureVal != Domain.NONE; futureVal = domain.next(futureVal)) {
+            solver.constraintChecks++;
+            if (!isSupported(futureVal)) {
+                solver.prune(future, futureVal);
+                pruned = true;
+            }
+        }
+        return pruned;
+    }
+
+    /**
+     * Checks if this arc is consistent. An arc is consistent if at least one tuple
+     * allowed by the constraint is consistent with the current assignment of the
+     * current and future variables.
+     *
+     * @return True if the arc is consistent, false otherwise.
+     */
+    public boolean isConsistent() {
+        if (current.assigned()) {
+            return future.assigned() ? allows(current.value(), future.value()) : hasSupport(current.value());
+        }
+        if (future.assigned()) {
+            return isSupported(future.value());
+        }
+        Domain domain = current.domain();
+        for (int currentVal = domain.first(); currentVal != Domain.NONE; currentVal = domain.next(currentVal)) {
+            if (hasSupport(currentVal)) {
+                return true;
+            }
+        }
+        return false; // No consistent tuple found.
+    }
+
+    /**
+     * Returns a string representation of the arc, listing the allowed tuples within
+     * the initial domains.
+     *
+     * @return String representation of the arc.
+     */
+    public String toString() {
+        StringBuffer result = new StringBuffer();
+        result.append(current + "->" + future + "\n");
+        Domain currentDomain = current.domain();
+        Domain futureDomain = future.domain();
+        for (int currentVal = currentDomain.lowerBound(); currentVal <= currentDomain.upperBound(); currentVal++) {
+            for (int futureVal = futureDomain.lowerBound(); futureVal <= futureDomain.upperBound(); futureVal++) {
+                if (allows(currentVal, futureVal)) {
+                    result.append(new BinaryTuple(currentVal, futureVal) + "\n");
+                }
+            }
+        }
+        return result.toString();
+    }
+}
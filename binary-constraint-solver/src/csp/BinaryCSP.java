@@ -0,0 +1,407 @@
+package csp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedList;
+import java.util.List;
+import java.util.Map;
+import java.util.Queue;
+
+/**
+ * Represents an entire CSP. It stores a list of binary variables, a map of binary arcs,
+ * a list of table constraints over any number of variables and the symmetries declared
+ * with the CSP.
+ */
+public final class BinaryCSP {
+
+	// The list of variables.
+	private final List<BinaryVariable> variables;
+
+	// The map of binary arcs.
+	private final Map<BinaryVariable, Map<BinaryVariable, BinaryArc>> arcs;
+
+	// The arcs from each variable, indexed by the order of the variable.
+	private final BinaryArc[][] adjacency;
+
+	// The number of arcs.
+	private final int noArcs;
+
+	// The table constraints.
+	private final List<TableConstraint> tables;
+
+	// The table constraints on each variable, indexed by the order of the variable.
+	private final TableConstraint[][] tablesOf;
+
+	// The declared symmetries.
+	private final List<Symmetry> symmetries;
+
+	/**
+	 * Creates a new binary CSP.
+	 *
+	 * @param variables The list of variables.
+	 * @param arcs The set of binary arcs.
+	 */
+	public BinaryCSP(BinaryVariable[] variables, Map<BinaryVariable, Map<BinaryVariable, BinaryArc>> arcs) {
+		this(variables, arcs, new ArrayList<TableConstraint>());
+	}
+
+	/**
+	 * Creates a new CSP with table constraints.
+	 *
+	 * @param variables The list of variables.
+	 * @param arcs The set of binary arcs.
+	 * @param tables The list of table constraints.
+	 */
+	public BinaryCSP(BinaryVariable[] variables, Map<BinaryVariable, Map<BinaryVariable, BinaryArc>> arcs,
+			List<TableConstraint> tables) {
+		this.variables = new ArrayList<BinaryVariable>(Arrays.asList(variables));
+		this.arcs = arcs;
+		this.tables = tables;
+		this.symmetries = new ArrayList<>();
+
+		// Precompute the arcs from each variable, sorted by the order of the future variable.
+		adjacency = new BinaryArc[variables.length][];
+		for (BinaryVariable var : variables) {
+			Map<BinaryVariable, BinaryArc> outgoing = arcs.get(var);
+			adjacency[var.order()] = outgoing == null ? new BinaryArc[0] : outgoing.values().toArray(new BinaryArc[0]);
+			Arrays.sort(adjacency[var.order()], Comparator.comparingInt(arc -> arc.future().order()));
+		}
+
+		// Number the arcs, so that solvers can keep data per arc in arrays.
+		int n = 0;
+		for (BinaryArc[] outgoing : adjacency) {
+			for (BinaryArc arc : outgoing) {
+				arc.setIndex(n++);
+			}
+		}
+		noArcs = n;
+
+		// Index the table constraints by the variables in their scope.
+		List<List<TableConstraint>> on = new ArrayList<>();
+		for (int i = 0; i < variables.length; i++) {
+			on.add(new ArrayList<TableConstraint>());
+		}
+		for (TableConstraint table : tables) {
+			for (BinaryVariable var : table.scope()) {
+				on.get(var.order()).add(table);
+			}
+		}
+		tablesOf = new TableConstraint[variables.length][];
+		for (int i = 0; i < variables.length; i++) {
+			tablesOf[i] = on.get(i).toArray(new TableConstraint[0]);
+		}
+	}
+
+	/**
+	 * Creates a deep copy of the CSP, including the current domains, assignments,
+	 * constraint weights and current tables, so that it can be searched independently
+	 * of the original.
+	 *
+	 * @return The copy of the CSP.
+	 */
+	public BinaryCSP copy() {
+		int[] orders = new int[variables.size()];
+		for (int i = 0; i < orders.length; i++) {
+			orders[i] = i;
+		}
+		return subproblem(orders);
+	}
+
+	/**
+	 * Creates a deep copy of the part of the CSP over some of its variables, including
+	 * their current domains, assignments and the weights of the constraints between them.
+	 * Table constraints are kept if all their variables are, and symmetries if they map
+	 * the variables kept among themselves. The variables are renumbered in the given order.
+	 *
+	 * @param orders The orders of the variables, the i-th becoming variable i of the copy.
+	 * @return The copy of the part of the CSP.
+	 */
+	public BinaryCSP subproblem(int[] orders) {
+		BinaryVariable[] copies = new BinaryVariable[orders.length];
+		Map<BinaryVariable, BinaryVariable> copyOf = new HashMap<>();
+		for (int i = 0; i < orders.length; i++) {
+			copies[i] = new BinaryVariable(i, variables.get(orders[i]));
+			copyOf.put(variables.get(orders[i]), copies[i]);
+		}
+
+		Map<BinaryVariable, Map<BinaryVariable, BinaryArc>> arcsCopy = new HashMap<>();
+		for (BinaryVariable copy : copies) {
+			arcsCopy.put(copy, new HashMap<BinaryVariable, BinaryArc>());
+		}
+		for (int order : orders) {
+			for (BinaryArc arc : adjacency[order]) {
+				// Each arc is copied together with its reverse, if both variables are kept.
+				BinaryVariable current = copyOf.get(arc.current());
+				BinaryVariable future = copyOf.get(arc.future());
+				if (future != null && !arcsCopy.get(current).containsKey(future)) {
+					BinaryArc copy = arc.copy(current, future);
+					arcsCopy.get(current).put(future, copy);
+					arcsCopy.get(future).put(current, copy.reverse());
+				}
+			}
+		}
+		List<TableConstraint> tablesCopy = new ArrayList<>();
+		for (TableConstraint table : tables) {
+			BinaryVariable[] scope = new BinaryVariable[table.scope().length];
+			boolean kept = true;
+			for (int i = 0; i < scope.length; i++) {
+				scope[i] = copyOf.get(table.scope()[i]);
+				kept &= scope[i] != null;
+			}
+			if (kept) {
+				tablesCopy.add(table.copy(scope));
+			}
+		}
+		BinaryCSP subproblem = new BinaryCSP(copies, arcsCopy, tablesCopy);
+		for (Symmetry symmetry : symmetries) {
+			Symmetry restricted = symmetry.restrict(orders, variables.size());
+			if (restricted != null) {
+				subproblem.addSymmetry(restricted);
+			}
+		}
+		return subproblem;
+	}
+
+	/**
+	 * Finds the connected components of the constraint graph, the largest sets of
+	 * variables linked by chains of constraints.
+	 *
+	 * @return The orders of the variables of each component, in ascending order.
+	 */
+	public List<int[]> components() {
+		List<int[]> components = new ArrayList<>();
+		boolean[] visited = new boolean[variables.size()];
+		int[] stack = new int[variables.size()];
+		int[] component = new int[variables.size()];
+		for (int start = 0; start < variables.size(); start++) {
+			if (visited[start]) {
+				continue;
+			}
+			// Collect the component by depth-first search from its first variable.
+			int size = 0;
+			int top = 0;
+			stack[top++] = start;
+			visited[start] = true;
+			while (top > 0) {
+				int order = stack[--top];
+				component[size++] = order;
+				for (BinaryArc arc : adjacency[order]) {
+					int next = arc.future().order();
+					if (!visited[next]) {
+						visited[next] = true;
+						stack[top++] = next;
+					}
+				}
+				for (TableConstraint table : tablesOf[order]) {
+					for (BinaryVariable var : table.scope()) {
+						if (!visited[var.order()]) {
+							visited[var.order()] = true;
+							stack[top++] = var.order();
+						}
+					}
+				}
+			}
+			int[] orders = Arrays.copyOf(component, size);
+			Arrays.sort(orders);
+			components.add(orders);
+		}
+		return components;
+	}
+
+	/**
+	 * Gets the number of variables.
+	 *
+	 * @return the number of variables in the problem
+	 */
+	public int noVariables() {
+		return variables.size();
+	}
+
+	/**
+	 * Gets the number of arcs, two per binary constraint.
+	 *
+	 * @return the number of arcs in the problem
+	 */
+	public int noArcs() {
+		return noArcs;
+	}
+
+	/**
+	 * Gets the list of variables.
+	 *
+	 * @return The list of variables.
+	 */
+	public List<BinaryVariable> getVars() {
+		return variables;
+	}
+
+	/**
+	 * Gets the variable at the specified index.
+	 *
+	 * @param i The index of the variable.
+	 * @return The variable at the specified index.
+	 */
+	public BinaryVariable getVar(int i) {
+		return variables.get(i);
+	}
+
+	/**
+	 * Gets the number of constraints.
+	 *
+	 * @return The number of constraints.
+	 */
+	public int noConstraints() {
+		int i = 0;
+		for (BinaryVariable var : arcs.keySet()) {
+			i += arcs.get(var).values().size();
+		}
+		return i / 2 + tables.size(); // Each binary constraint is counted twice
+	}
+
+	/**
+	 * Checks if the problem is consistent with a variable.
+	 *
+	 * @param var The variable to check consistency for.
+	 * @return True, if the problem is consistent with the variable.
+	 */
+	public boolean isConsistent(BinaryVariable current) {
+		for (BinaryVariable future: arcs.get(current).keySet()) {
+			BinaryArc arc = arcs.get(current).get(future);
+			if (!arc.isConsistent()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks if the problem is consistent (all arcs are consistent).
+	 *
+	 * @return True, if the problem is consistent.
+	 */
+	public boolean isConsistent() {
+		for (BinaryVariable current : arcs.keySet()) {
+			for (BinaryVariable future : arcs.get(current).keySet()) {
+				BinaryArc arc = arcs.get(current).get(future);
+				if (!arc.isConsistent()) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Checks whether every variable in the problem is assigned.
+	 *
+	 * @return True, if every variable is assigned.
+	 */
+	public boolean completeAssignment() {
+		for (BinaryVariable var : variables) {
+			if (!var.assigned()) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Gets all the arcs in a queue.
+	 *
+	 * @return The arcs in a queue.
+	 */
+	public Queue<BinaryArc> queueArcs() {
+		Queue<BinaryArc> queue = new LinkedList<BinaryArc>();
+		for (BinaryVariable current : arcs.keySet()) {
+			for (BinaryVariable future : arcs.get(current).keySet()) {
+				queue.add(arcs.get(current).get(future));
+			}
+		}
+		return queue;
+	}
+
+	/**
+	 * Gets the arc between two variables.
+	 *
+	 * @param current The current variable of the arc.
+	 * @param future The future variable of the arc.
+	 * @return The arc, or null if the variables share no constraint.
+	 */
+	public BinaryArc getArc(BinaryVariable current, BinaryVariable future) {
+		Map<BinaryVariable, BinaryArc> outgoing = arcs.get(current);
+		return outgoing == null ? null : outgoing.get(future);
+	}
+
+	/**
+	 * Gets the future arcs from the provided variable. The array is precomputed and
+	 * shared, so it must not be modified.
+	 *
+	 * @param var The variable to get all the future arcs from.
+	 * @return The outgoing arcs.
+	 */
+	public BinaryArc[] futureArcs(BinaryVariable var) {
+		return adjacency[var.order()];
+	}
+
+	/**
+	 * Gets the table constraints.
+	 *
+	 * @return The table constraints.
+	 */
+	public List<TableConstraint> tables() {
+		return tables;
+	}
+
+	/**
+	 * Gets the table constraints on a variable. The array is precomputed and shared, so
+	 * it must not be modified.
+	 *
+	 * @param var The variable.
+	 * @return The table constraints whose scope holds the variable.
+	 */
+	public TableConstraint[] tables(BinaryVariable var) {
+		return tablesOf[var.order()];
+	}
+
+	/**
+	 * Declares a symmetry of the CSP.
+	 *
+	 * @param symmetry The symmetry, over the variables of the CSP.
+	 */
+	public void addSymmetry(Symmetry symmetry) {
+		symmetries.add(symmetry);
+	}
+
+	/**
+	 * Gets the declared symmetries.
+	 *
+	 * @return The symmetries.
+	 */
+	public List<Symmetry> symmetries() {
+		return symmetries;
+	}
+
+	/**
+     * Returns a string representation of the CSP.
+     * 
+     * @return String representation of the CSP.
+     */
+	public String toString() {
+		StringBuffer result = new StringBuffer();
+		result.append("CSP:\n");
+		for (int i = 0; i < variables.size(); i++)
+			result.append(variables.get(i).toString() + "\n");
+		for (Map<BinaryVariable, BinaryArc> map : arcs.values()) {
+			for (BinaryArc arc : map.values())
+				result.append(arc + "\n");
+		}
+		for (TableConstraint table : tables)
+			result.append(table + "\n");
+		for (Symmetry symmetry : symmetries)
+			result.append(symmetry + "\n");
+		return result.toString();
+	}
+
+}
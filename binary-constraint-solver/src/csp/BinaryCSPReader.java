@@ -0,0 +1,621 @@
+package csp;
+
+import java.io.IOException;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Paths;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Reads a binary CSP from a file. The file is memory-mapped and parsed byte by byte,
+ * and each tuple is written straight into the compiled bit-matrix of its arc, so
+ * large instances are read without creating an object per token or per tuple. Files
+ * in the compact .cspb format written by BinaryCSPWriter are recognised by their
+ * magic number, and their matrices are copied from the mapped file in bulk.
+ */
+public final class BinaryCSPReader {
+
+    // The number of bytes of the file mapped into memory at a time.
+    private static final long WINDOW = 1L << 28;
+
+    // Returned by peek() at the end of the file.
+    private static final int EOF = -1;
+
+    // The channel of the file being read.
+    private FileChannel channel;
+
+    // The size of the file being read.
+    private long size;
+
+    // The mapped window of the file, and the position of the window in the file.
+    private MappedByteBuffer buffer;
+    private long position;
+
+    // The size of the last file read, in bytes.
+    private long bytesRead;
+
+    // The time taken to read the last file, in nanoseconds.
+    private long loadTime;
+
+    /**
+     * Main (for testing).
+     */
+    public static void main(String[] args) {
+        if (args.length != 1) {
+            System.out.println("Usage: java BinaryCSPReader <file.csp>");
+            return;
+        }
+        BinaryCSPReader reader = new BinaryCSPReader();
+        System.out.println(reader.readBinaryCSP(args[0]));
+    }
+
+    /**
+     * Reads a binary CSP from a file, printing the error if it cannot be read.
+     *
+     * @param file File name.
+     * @return The binary CSP, or null if the file cannot be read.
+     */
+    public BinaryCSP readBinaryCSP(String file) {
+        try {
+            return read(file);
+        } catch (IOException e) {
+            System.out.println(e);
+        }
+        return null;
+    }
+
+    /**
+     * Reads a binary CSP from a file.
+     *
+     * @param file File name.
+     * @return The binary CSP.
+     * @throws IOException If an I/O error occurs or the file is malformed.
+     */
+    public BinaryCSP read(String file) throws IOException {
+        long start = System.nanoTime();
+        try (FileChannel channel = FileChannel.open(Paths.get(file), StandardOpenOption.READ)) {
+            this.channel = channel;
+            this.size = channel.size();
+            this.position = 0;
+            this.buffer = map();
+            BinaryCSP csp = (size >= 4 && buffer.getInt(0) == BinaryCSPWriter.MAGIC) ? readCompact() : readText();
+            bytesRead = size;
+            loadTime = System.nanoTime() - start;
+            return csp;
+        } finally {
+            channel = null;
+            buffer = null;
+        }
+    }
+
+    /**
+     * Gets the size of the last file read.
+     *
+     * @return The size of the file, in bytes.
+     */
+    public long bytesRead() {
+        return bytesRead;
+    }
+
+    /**
+     * Gets the time taken to read the last file, from opening it to building its arcs.
+     *
+     * @return The load time, in nanoseconds.
+     */
+    public long loadTime() {
+        return loadTime;
+    }
+
+    /**
+     * Reads a CSP in the text format.
+     *
+     * @return The binary CSP.
+     * @throws IOException If an I/O error occurs or the file is malformed.
+     */
+    private BinaryCSP readText() throws IOException {
+        BinaryVariable[] variables = readVariables();
+        List<TableConstraint> tables = new ArrayList<>();
+        List<Symmetry> symmetries = new ArrayList<>();
+        Map<BinaryVariable, Map<BinaryVariable, BinaryArc>> arcs = readConstraints(variables, tables, symmetries);
+        BinaryCSP csp = new BinaryCSP(variables, arcs, tables);
+        for (Symmetry symmetry : symmetries) {
+            csp.addSymmetry(symmetry);
+        }
+        return csp;
+    }
+
+    /**
+     * Reads a CSP in the compact .cspb format. The !=, distance and less-than records
+     * become intensional arcs, and difference records are expanded into bit-matrices
+     * as they are read.
+     *
+     * @return The binary CSP.
+     * @throws IOException If an I/O error occurs or the file is malformed.
+     */
+    private BinaryCSP readCompact() throws IOException {
+        if (size > Integer.MAX_VALUE) {
+            throw new IOException("A .cspb file must be smaller than 2 GB");
+        }
+        if (buffer.capacity() < size) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, size);
+        }
+        buffer.position(4);
+        int version = buffer.getInt();
+        if (version != BinaryCSPWriter.VERSION) {
+            throw new IOException("Unsupported .cspb version " + version);
+        }
+        BinaryVariable[] variables = new BinaryVariable[buffer.getInt()];
+        for (int i = 0; i < variables.length; i++) {
+            variables[i] = new BinaryVariable(i, buffer.getInt(), buffer.getInt());
+        }
+
+        Map<BinaryVariable, Map<BinaryVariable, BinaryArc>> arcs = new HashMap<>();
+        while (buffer.hasRemaining()) {
+            BinaryVariable var1 = compactVariable(variables);
+            BinaryVariable var2 = compactVariable(variables);
+            byte kind = buffer.get();
+            switch (kind) {
+                case BinaryCSPWriter.MATRIX:
+                    addArc(arcs, readMatrix(var1, var2));
+                    break;
+                case BinaryCSPWriter.NOT_EQUAL:
+                    addArc(arcs, new NotEqualArc(var1, var2));
+                    break;
+                case BinaryCSPWriter.DISTANCE_NOT_EQUAL:
+                    addArc(arcs, new DistanceArc(var1, var2, buffer.getInt()));
+                    break;
+                case BinaryCSPWriter.LESS_THAN:
+                    addArc(arcs, new LessThanArc(var1, var2));
+                    break;
+                case BinaryCSPWriter.DIFFERENCE:
+                    addArc(arcs, difference(var1, var2, buffer.getInt()));
+                    break;
+                default:
+                    throw new IOException("Unknown constraint kind " + kind + " at byte " + (buffer.position() - 1));
+            }
+        }
+        return new BinaryCSP(variables, arcs);
+    }
+
+    /**
+     * Reads a variable of a constraint record in the compact format.
+     *
+     * @param variables The variables.
+     * @return The variable.
+     * @throws IOException If the variable does not exist.
+     */
+    private BinaryVariable compactVariable(BinaryVariable[] variables) throws IOException {
+        int index = buffer.getInt();
+        if (index < 0 || index >= variables.length) {
+            throw new IOException("Unknown variable " + index + " before byte " + buffer.position());
+        }
+        return variables[index];
+    }
+
+    /**
+     * Reads the bit-matrix of a constraint in the compact format, copying each row
+     * from the mapped file in bulk.
+     *
+     * @param var1 The current variable.
+     * @param var2 The future variable.
+     * @return The arc.
+     */
+    private BinaryArc readMatrix(BinaryVariable var1, BinaryVariable var2) {
+        Domain domain = var1.domain();
+        long[][] supports = new long[Math.max(0, domain.upperBound() - domain.lowerBound() + 1)][var2.domain().words().length];
+        LongBuffer words = buffer.asLongBuffer();
+        for (long[] row : supports) {
+            words.get(row);
+        }
+        buffer.position(buffer.position() + (words.position() << 3));
+        return new ExtensionalArc(var1, var2, supports);
+    }
+
+    /**
+     * Compiles a difference constraint of the compact format, var2 - var1 == difference,
+     * into a bit-matrix. Each value has at most one support, so the matrix is filled in
+     * a single pass over the current values.
+     *
+     * @param var1 The current variable.
+     * @param var2 The future variable.
+     * @param difference The difference.
+     * @return The arc.
+     */
+    private BinaryArc difference(BinaryVariable var1, BinaryVariable var2, int difference) {
+        ExtensionalArc arc = new ExtensionalArc(var1, var2);
+        Domain domain = var1.domain();
+        for (int val = domain.lowerBound(); val <= domain.upperBound(); val++) {
+            arc.allow(val, val + difference);
+        }
+        return arc;
+    }
+
+    /**
+     * Reads a list of constraints. Each binary constraint is of the form
+     * c(<varno>, <varno>) \n <tuple> <tuple> \n <tuple> <tuple> \n ...
+     * or, for an intensional constraint, c(<varno>, <varno>) <kind>, where the kind is
+     * neq, lt or dist <distance>. A constraint on any other number of variables is a
+     * table constraint, c(<varno>, ..., <varno>) \n <tuple> ... <tuple> \n ..., with one
+     * value per variable in each tuple. Symmetries can be declared among the constraints,
+     * as s(<varno>, ..., <varno>) with the image of each variable, followed by the image
+     * of each value from the lowest to the highest of any domain unless values are
+     * unchanged.
+     *
+     * @param variables The variables in the CSP.
+     * @param tables The list the table constraints are added to.
+     * @param symmetries The list the symmetries are added to.
+     * @return The binary arcs.
+     * @throws IOException If an I/O error occurs or the file is malformed.
+     */
+    private Map<BinaryVariable, Map<BinaryVariable, BinaryArc>> readConstraints(BinaryVariable[] variables,
+            List<TableConstraint> tables, List<Symmetry> symmetries) throws IOException {
+        Map<BinaryVariable, Map<BinaryVariable, BinaryArc>> arcs = new HashMap<>();
+        int next = peek(); // 'c', 's' or EOF.
+        while (next != EOF) {
+            if (next == 's') {
+                buffer.get();
+                next = readSymmetry(variables, symmetries);
+                continue;
+            }
+            if (next != 'c') {
+                throw unexpected(next);
+            }
+            buffer.get();
+            BinaryVariable[] scope = readScope(variables);
+            next = peek();
+            // No kind starts with 'c' or 's', which start the next constraint or symmetry
+            // if this one has no tuples.
+            boolean kind = next >= 'a' && next <= 'z' && next != 'c' && next != 's';
+            if (scope.length != 2) {
+                if (kind) {
+                    throw new IOException("Constraint kinds need two variables, at byte " + offset());
+                }
+                next = readTable(scope, tables);
+            } else if (kind) {
+                addArc(arcs, readIntensional(scope[0], scope[1]));
+                next = peek();
+            } else {
+                ExtensionalArc arc = new ExtensionalArc(scope[0], scope[1]);
+                next = readTuples(arc);
+                addArc(arcs, arc);
+            }
+        }
+        return arcs;
+    }
+
+    /**
+     * Reads the variables of a constraint, up to the ')' closing its list.
+     *
+     * @param variables The variables.
+     * @return The variables of the constraint.
+     * @throws IOException If an I/O error occurs or the file is malformed.
+     */
+    private BinaryVariable[] readScope(BinaryVariable[] variables) throws IOException {
+        List<BinaryVariable> scope = new ArrayList<>();
+        scope.add(readVariable(variables));
+        int next = skipBlanks();
+        while (next == '-' || (next >= '0' && next <= '9')) {
+            scope.add(readVariable(variables));
+            next = skipBlanks();
+        }
+        return scope.toArray(new BinaryVariable[0]);
+    }
+
+    /**
+     * Reads a symmetry, and adds it to a list.
+     *
+     * @param variables The variables.
+     * @param symmetries The list of symmetries.
+     * @return The first byte after the symmetry, 'c', 's' or EOF.
+     * @throws IOException If an I/O error occurs or the file is malformed.
+     */
+    private int readSymmetry(BinaryVariable[] variables, List<Symmetry> symmetries) throws IOException {
+        long start = offset();
+        BinaryVariable[] images = readScope(variables);
+        int[] vars = new int[images.length];
+        for (int i = 0; i < vars.length; i++) {
+            vars[i] = images[i].order();
+        }
+        int lower = Integer.MAX_VALUE;
+        int upper = Integer.MIN_VALUE;
+        for (BinaryVariable var : variables) {
+            lower = Math.min(lower, var.domain().lowerBound());
+            upper = Math.max(upper, var.domain().upperBound());
+        }
+        int[] vals = null;
+        int next = peek();
+        if (next == '-' || (next >= '0' && next <= '9')) {
+            vals = new int[upper - lower + 1];
+            for (int i = 0; i < vals.length; i++) {
+                vals[i] = readInt();
+            }
+            next = peek();
+        }
+        if (vars.length != variables.length) {
+            throw new IOException("Expected the images of " + variables.length + " variables at byte " + start);
+        }
+        try {
+            symmetries.add(new Symmetry(vars, lower, vals));
+        } catch (IllegalArgumentException e) {
+            throw new IOException(e.getMessage() + " in the symmetry at byte " + start);
+        }
+        return next;
+    }
+
+    /**
+     * Reads the tuples of a table constraint, and adds the constraint to a list.
+     *
+     * @param scope The variables of the constraint.
+     * @param tables The list of table constraints.
+     * @return The first byte after the tuples, 'c', 's' or EOF.
+     * @throws IOException If an I/O error occurs or the file is malformed.
+     */
+    private int readTable(BinaryVariable[] scope, List<TableConstraint> tables) throws IOException {
+        for (int i = 0; i < scope.length; i++) {
+            for (int j = 0; j < i; j++) {
+                if (scope[i] == scope[j]) {
+                    throw new IOException("Variable " + scope[i].order() + " repeated in a constraint before byte " + offset());
+                }
+            }
+        }
+        int[] values = new int[64 * scope.length];
+        int n = 0;
+        int next = peek(); // First value of the first tuple or 'c', 's' or EOF.
+        while (next == '-' || (next >= '0' && next <= '9')) {
+            if (n + scope.length > values.length) {
+                values = Arrays.copyOf(values, values.length * 2);
+            }
+            for (int i = 0; i < scope.length; i++) {
+                values[n++] = readInt();
+            }
+            next = peek();
+        }
+        int[][] tuples = new int[n / scope.length][];
+        for (int t = 0; t < tuples.length; t++) {
+            tuples[t] = Arrays.copyOfRange(values, t * scope.length, (t + 1) * scope.length);
+        }
+        tables.add(new TableConstraint(scope, tuples));
+        return next;
+    }
+
+    /**
+     * Reads the kind of an intensional constraint, and its distance if it has one.
+     *
+     * @param var1 The current variable.
+     * @param var2 The future variable.
+     * @return The arc.
+     * @throws IOException If an I/O error occurs or the kind is unknown.
+     */
+    private BinaryArc readIntensional(BinaryVariable var1, BinaryVariable var2) throws IOException {
+        long start = offset();
+        StringBuilder kind = new StringBuilder();
+        for (int next = current(); next >= 'a' && next <= 'z'; next = current()) {
+            kind.append((char) next);
+            buffer.get();
+        }
+        switch (kind.toString()) {
+            case "neq":
+                return new NotEqualArc(var1, var2);
+            case "lt":
+                return new LessThanArc(var1, var2);
+            case "dist":
+                return new DistanceArc(var1, var2, readInt());
+            default:
+                throw new IOException("Unknown constraint kind '" + kind + "' at byte " + start);
+        }
+    }
+
+    /**
+     * Reads a list of variables.
+     *
+     * @return The variables.
+     * @throws IOException If an I/O error occurs or the file is malformed.
+     */
+    private BinaryVariable[] readVariables() throws IOException {
+        int n = readInt(); // Number of variables.
+        BinaryVariable[] variables = new BinaryVariable[n];
+        for (int i = 0; i < n; i++) {
+            variables[i] = readVariable(i);
+        }
+        return variables;
+    }
+
+    /**
+     * Reads a variable and its domain.
+     *
+     * @param index The index of the variable.
+     * @return The variable.
+     * @throws IOException If an I/O error occurs or the file is malformed.
+     */
+    private BinaryVariable readVariable(int index) throws IOException {
+        int lower = readInt();
+        int upper = readInt();
+        return new BinaryVariable(index, lower, upper);
+    }
+
+    /**
+     * Reads a variable.
+     *
+     * @param variables The variables.
+     * @return The variable.
+     * @throws IOException If an I/O error occurs or the file is malformed.
+     */
+    private BinaryVariable readVariable(BinaryVariable[] variables) throws IOException {
+        int index = readInt();
+        if (index < 0 || index >= variables.length) {
+            throw new IOException("Unknown variable " + index + " before byte " + offset());
+        }
+        return variables[index];
+    }
+
+    /**
+     * Reads a list of tuples into the matrix of an arc.
+     *
+     * @param arc The arc being built.
+     * @return The first byte after the tuples, 'c', 's' or EOF.
+     * @throws IOException If an I/O error occurs or the file is malformed.
+     */
+    private int readTuples(ExtensionalArc arc) throws IOException {
+        int next = peek(); // val1 of first tuple or 'c', 's' or EOF.
+        while (next == '-' || (next >= '0' && next <= '9')) {
+            int val1 = readInt();
+            arc.allow(val1, readInt());
+            next = peek();
+        }
+        return next;
+    }
+
+    /**
+     * Adds an arc and its reverse to the map of arcs. If there already is a constraint
+     * on the same pair of variables, the two are combined so that both hold.
+     *
+     * @param arcs The map of arcs.
+     * @param arc The arc.
+     */
+    private void addArc(Map<BinaryVariable, Map<BinaryVariable, BinaryArc>> arcs, BinaryArc arc) {
+        BinaryVariable var1 = arc.current();
+        BinaryVariable var2 = arc.future();
+        if (!arcs.containsKey(var1)) {
+            arcs.put(var1, new HashMap<BinaryVariable, BinaryArc>());
+        }
+        BinaryArc existing = arcs.get(var1).get(var2);
+        if (existing != null) {
+            arc = existing.and(arc);
+        }
+        arcs.get(var1).put(var2, arc);
+
+        arc = arc.reverse();
+        if (!arcs.containsKey(var2)) {
+            arcs.put(var2, new HashMap<BinaryVariable, BinaryArc>());
+        }
+        arcs.get(var2).put(var1, arc);
+    }
+
+    /**
+     * Reads an integer, skipping any separators and comments before it.
+     *
+     * @return The integer.
+     * @throws IOException If an I/O error occurs or no integer is next.
+     */
+    private int readInt() throws IOException {
+        int next = peek();
+        boolean negative = next == '-';
+        if (negative) {
+            buffer.get();
+            next = current();
+        }
+        if (next < '0' || next > '9') {
+            throw unexpected(next);
+        }
+        int value = 0;
+        while (next >= '0' && next <= '9') {
+            value = value * 10 + (next - '0');
+            buffer.get();
+            next = current();
+        }
+        return negative ? -value : value;
+    }
+
+    /**
+     * Skips whitespace, the separators ',', ':', '(' and ')', and comments, which run
+     * from a '/' to the end of the line, then returns the next byte without consuming it.
+     *
+     * @return The next byte, or EOF at the end of the file.
+     * @throws IOException If an I/O error occurs.
+     */
+    private int peek() throws IOException {
+        while (true) {
+            int next = current();
+            switch (next) {
+                case ' ': case '\t': case '\r': case '\n': case ',': case ':': case '(': case ')':
+                    buffer.get();
+                    break;
+                case '/':
+                    while (next != '\n' && next != EOF) {
+                        buffer.get();
+                        next = current();
+                    }
+                    break;
+                default:
+                    return next;
+            }
+        }
+    }
+
+    /**
+     * Skips whitespace and ',' only, so that the ')' closing a list of variables is seen,
+     * then returns the next byte without consuming it.
+     *
+     * @return The next byte, or EOF at the end of the file.
+     * @throws IOException If an I/O error occurs.
+     */
+    private int skipBlanks() throws IOException {
+        int next = current();
+        while (next == ' ' || next == '\t' || next == '\r' || next == '\n' || next == ',') {
+            buffer.get();
+            next = current();
+        }
+        return next;
+    }
+
+    /**
+     * Gets the next byte without consuming it.
+     *
+     * @return The next byte, or EOF at the end of the file.
+     * @throws IOException If an I/O error occurs.
+     */
+    private int current() throws IOException {
+        return buffer.hasRemaining() ? buffer.get(buffer.position()) & 0xFF : refill();
+    }
+
+    /**
+     * Maps the next window of the file once the current one has been read.
+     *
+     * @return The next byte, or EOF at the end of the file.
+     * @throws IOException If an I/O error occurs.
+     */
+    private int refill() throws IOException {
+        if (position + buffer.capacity() >= size) {
+            return EOF;
+        }
+        position += buffer.capacity();
+        buffer = map();
+        return buffer.get(0) & 0xFF;
+    }
+
+    /**
+     * Maps the window of the file starting at the current position.
+     *
+     * @return The mapped window.
+     * @throws IOException If an I/O error occurs.
+     */
+    private MappedByteBuffer map() throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, position, Math.min(WINDOW, size - position));
+    }
+
+    /**
+     * Gets the offset in the file of the next byte.
+     *
+     * @return The offset.
+     */
+    private long offset() {
+        return position + buffer.position();
+    }
+
+    /**
+     * Creates the exception for an unexpected byte.
+     *
+     * @param next The unexpected byte, or EOF.
+     * @return The exception.
+     */
+    private IOException unexpected(int next) {
+        String found = next == EOF ? "end of file" : "'" + (char) next + "'";
+        return new IOException("Unexpected " + found + " at byte " + offset());
+    }
+}
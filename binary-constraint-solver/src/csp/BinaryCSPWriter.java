@@ -0,0 +1,221 @@
+package csp;
+
+import java.io.BufferedOutputStream;
+import java.io.Closeable;
+import java.io.DataOutputStream;
+import java.io.FileOutputStream;
+import java.io.IOException;
+
+/**
+ * Writes a binary CSP in the compact .cspb format, read by BinaryCSPReader. All
+ * numbers are big-endian. The file starts with the magic number "CSPB", the format
+ * version, the number of variables and the bounds of each domain. A record follows
+ * for each constraint, up to the end of the file: the two variables, the kind of the
+ * constraint and its data. A matrix constraint stores the compiled bit-matrix of the
+ * arc, one row of 64-bit words per value of the first variable. The other kinds are
+ * intensional and stored in a few bytes, and all but the difference are read as
+ * intensional arcs. Several records on the same pair of variables are combined, so
+ * only tuples allowed by all of them are allowed.
+ */
+public final class BinaryCSPWriter implements Closeable {
+
+    // The magic number at the start of the file, "CSPB" in ASCII.
+    static final int MAGIC = 0x43535042;
+
+    // The version of the format.
+    static final int VERSION = 1;
+
+    // The kinds of constraint. A matrix is followed by its words, and the distance
+    // and difference kinds by their int parameter.
+    static final byte MATRIX = 0;
+    static final byte NOT_EQUAL = 1;
+    static final byte DISTANCE_NOT_EQUAL = 2;
+    static final byte DIFFERENCE = 3;
+    static final byte LESS_THAN = 4;
+
+    // The stream being written.
+    private final DataOutputStream out;
+
+    // The bounds of the domains, used to check the shape of matrices.
+    private final int[] lowerBounds, upperBounds;
+
+    /**
+     * Main, converts a .csp file to the .cspb format.
+     */
+    public static void main(String[] args) {
+        if (args.length != 2) {
+            System.out.println("Usage: java BinaryCSPWriter <file.csp> <file.cspb>");
+            return;
+        }
+        BinaryCSP csp = new BinaryCSPReader().readBinaryCSP(args[0]);
+        if (csp == null) {
+            return;
+        }
+        try {
+            write(csp, args[1]);
+        } catch (IOException e) {
+            System.out.println(e);
+        }
+    }
+
+    /**
+     * Creates a new writer and writes the variables of the CSP.
+     *
+     * @param file File name.
+     * @param lowerBounds The lower bound of the domain of each variable.
+     * @param upperBounds The upper bound of the domain of each variable.
+     * @throws IOException If an I/O error occurs.
+     */
+    public BinaryCSPWriter(String file, int[] lowerBounds, int[] upperBounds) throws IOException {
+        this.out = new DataOutputStream(new BufferedOutputStream(new FileOutputStream(file), 1 << 16));
+        this.lowerBounds = lowerBounds.clone();
+        this.upperBounds = upperBounds.clone();
+        out.writeInt(MAGIC);
+        out.writeInt(VERSION);
+        out.writeInt(lowerBounds.length);
+        for (int i = 0; i < lowerBounds.length; i++) {
+            out.writeInt(lowerBounds[i]);
+            out.writeInt(upperBounds[i]);
+        }
+    }
+
+    /**
+     * Writes a CSP, storing intensional constraints by kind where the format allows
+     * and every other constraint as a matrix. Table constraints cannot be written.
+     *
+     * @param csp The CSP.
+     * @param file File name.
+     * @throws IOException If an I/O error occurs or the CSP has table constraints.
+     */
+    public static void write(BinaryCSP csp, String file) throws IOException {
+        if (!csp.tables().isEmpty()) {
+            throw new IOException("Table constraints cannot be written in the compact format");
+        }
+        int[] lowerBounds = new int[csp.noVariables()];
+        int[] upperBounds = new int[csp.noVariables()];
+        for (BinaryVariable var : csp.getVars()) {
+            lowerBounds[var.order()] = var.domain().lowerBound();
+            upperBounds[var.order()] = var.domain().upperBound();
+        }
+        try (BinaryCSPWriter writer = new BinaryCSPWriter(file, lowerBounds, upperBounds)) {
+            for (BinaryVariable var : csp.getVars()) {
+                for (BinaryArc arc : csp.futureArcs(var)) {
+                    // Each constraint is written once, from its first variable.
+                    if (arc.current().order() < arc.future().order()) {
+                        arc.write(writer);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Writes a constraint allowing the pairs of different values.
+     *
+     * @param var1 The first variable.
+     * @param var2 The second variable.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void notEqual(int var1, int var2) throws IOException {
+        header(var1, var2, NOT_EQUAL);
+    }
+
+    /**
+     * Writes a constraint allowing the pairs of values whose absolute difference is
+     * not a given distance, |var1 - var2| != distance.
+     *
+     * @param var1 The first variable.
+     * @param var2 The second variable.
+     * @param distance The distance.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void distanceNotEqual(int var1, int var2, int distance) throws IOException {
+        header(var1, var2, DISTANCE_NOT_EQUAL);
+        out.writeInt(distance);
+    }
+
+    /**
+     * Writes a constraint allowing the pairs of values with a given difference,
+     * var2 - var1 == difference.
+     *
+     * @param var1 The first variable.
+     * @param var2 The second variable.
+     * @param difference The difference.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void difference(int var1, int var2, int difference) throws IOException {
+        header(var1, var2, DIFFERENCE);
+        out.writeInt(difference);
+    }
+
+    /**
+     * Writes a constraint allowing the pairs of values where the first is smaller,
+     * var1 < var2.
+     *
+     * @param var1 The first variable.
+     * @param var2 The second variable.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void lessThan(int var1, int var2) throws IOException {
+        header(var1, var2, LESS_THAN);
+    }
+
+    /**
+     * Writes a constraint as a bit-matrix. Bit j of row i is set if the first variable
+     * may take its (lowerBound + i)-th value while the second takes its (lowerBound + j)-th.
+     *
+     * @param var1 The first variable.
+     * @param var2 The second variable.
+     * @param rows The matrix, one row per value of the first variable.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void matrix(int var1, int var2, long[][] rows) throws IOException {
+        int words = (range(var2) + 63) >>> 6;
+        if (rows.length != range(var1)) {
+            throw new IllegalArgumentException("Expected " + range(var1) + " rows, not " + rows.length);
+        }
+        header(var1, var2, MATRIX);
+        for (long[] row : rows) {
+            if (row.length != words) {
+                throw new IllegalArgumentException("Expected rows of " + words + " words, not " + row.length);
+            }
+            for (long word : row) {
+                out.writeLong(word);
+            }
+        }
+    }
+
+    /**
+     * Writes the start of a constraint record.
+     *
+     * @param var1 The first variable.
+     * @param var2 The second variable.
+     * @param kind The kind of constraint.
+     * @throws IOException If an I/O error occurs.
+     */
+    private void header(int var1, int var2, byte kind) throws IOException {
+        out.writeInt(var1);
+        out.writeInt(var2);
+        out.writeByte(kind);
+    }
+
+    /**
+     * Gets the number of values in the initial domain of a variable.
+     *
+     * @param var The variable.
+     * @return The number of values.
+     */
+    private int range(int var) {
+        return Math.max(0, upperBounds[var] - lowerBounds[var] + 1);
+    }
+
+    /**
+     * Flushes and closes the file.
+     *
+     * @throws IOException If an I/O error occurs.
+     */
+    @Override
+    public void close() throws IOException {
+        out.close();
+    }
+}
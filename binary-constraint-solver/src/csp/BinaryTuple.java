@@ -1,4 +1,4 @@
-import java.util.Objects;
+package csp;
 
 /**
  * Represents an allowed tuple of values in a binary constraint.
@@ -77,13 +77,14 @@ public final class BinaryTuple {
     }
 
     /**
-     * Computes the hash code of the tuple.
+     * Computes the hash code of the tuple, the same as Objects.hash(val1, val2) but
+     * without boxing the values into an array.
      * 
      * @return Hash code of the tuple.
      */
     @Override
 	public int hashCode() {
-		return Objects.hash(val1, val2);
+		return 31 * (31 + val1) + val2;
 	}
 
 	/**
@@ -101,7 +102,6 @@ public final class BinaryTuple {
         }
 
 		BinaryTuple other = (BinaryTuple) obj;
-        return Objects.equals(val1, other.val1)
-            && Objects.equals(val2, other.val2);
+        return val1 == other.val1 && val2 == other.val2;
 	}
 }
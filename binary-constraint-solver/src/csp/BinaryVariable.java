@@ -1,5 +1,4 @@
-import java.util.HashSet;
-import java.util.Set;
+package csp;
 
 /**
  * Represents a variable in a binary CSP.
@@ -10,7 +9,7 @@ public final class BinaryVariable {
     private final int order;
 
     // The domain of the variable.
-    private Set<Integer> domain;
+    private final Domain domain;
 
     // The value of the variable.
     private Integer value;
@@ -27,10 +26,28 @@ public final class BinaryVariable {
         this.value = null;
 
         // Initialize the domain.
-        domain = new HashSet<Integer>();
-        for (int i = lowerBound; i <= upperBound; i++) {
-			domain.add(i);
-		}
+        domain = new Domain(lowerBound, upperBound);
+    }
+
+    /**
+     * Creates a copy of a variable, with its own copy of the domain and value.
+     * 
+     * @param other The variable to be copied.
+     */
+    public BinaryVariable(BinaryVariable other) {
+        this(other.order, other);
+    }
+
+    /**
+     * Creates a copy of a variable with a new order, with its own copy of the domain and value.
+     * 
+     * @param order Order of the copy.
+     * @param other The variable to be copied.
+     */
+    public BinaryVariable(int order, BinaryVariable other) {
+        this.order = order;
+        this.value = other.value;
+        this.domain = new Domain(other.domain);
     }
 
     /**
@@ -47,7 +64,7 @@ public final class BinaryVariable {
      * 
      * @return Domain of the variable.
      */
-    public Set<Integer> domain() {
+    public Domain domain() {
         return domain;
     }
 
@@ -77,30 +94,23 @@ public final class BinaryVariable {
 	}
 
     /**
-     * Adds a set of values to the domain of the variable.
-     * 
-     * @param value Set of values to be added.
-     */
-    public void add(int value) {
-		domain.add(value);
-	}
-
-    /**
-     * Removes a set of values from the domain of the variable.
+     * Adds a value to the domain of the variable.
      * 
-     * @param values Set of values to be removed.
+     * @param value Value to be added.
+     * @return True if the domain changed, false otherwise.
      */
-    public void remove(Set<Integer> values) {
-		domain.removeAll(values);
+    public boolean add(int value) {
+		return domain.add(value);
 	}
 
     /**
      * Removes a value from the domain of the variable.
      * 
      * @param val Value to be removed.
+     * @return True if the domain changed, false otherwise.
      */
-    public void remove(int val) {
-		domain.remove(val);
+    public boolean remove(int val) {
+		return domain.remove(val);
 	}
 
     /**
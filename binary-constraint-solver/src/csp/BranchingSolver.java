@@ -0,0 +1,145 @@
+package csp;
+
+/**
+ * A solver branching on a value and its removal (2-way branching): the left branch of
+ * a node assigns a value to a variable and the right branch removes it. Unlike BT,
+ * which tries each value of a variable in turn, the right branch of a node is a search
+ * of its own, so parallel search can hand it to another solver.
+ */
+public abstract class BranchingSolver extends Solver {
+
+	// Whether the search breaks the symmetries declared with the CSP, and the variables
+	// whose values were last removed by breaking them.
+	boolean symmetryBreaking;
+	BinaryVariable[] symmetric;
+
+	/**
+	 * Creates a new solver for a given CSP.
+	 *
+	 * @param csp The constraint satisfaction problem to be solved.
+	 * @param ordering The variable ordering heuristic to be used.
+	 * @param valueOrdering The value ordering heuristic to be used.
+	 */
+	public BranchingSolver(BinaryCSP csp, VariableOrdering ordering, ValueOrdering valueOrdering) {
+		super(csp, ordering, valueOrdering);
+		symmetryBreaking = false;
+		symmetric = new BinaryVariable[csp.noVariables()];
+	}
+
+	/**
+	 * Sets whether the search breaks the symmetries declared with the CSP.
+	 *
+	 * @param symmetryBreaking True to break the symmetries.
+	 */
+	public void setSymmetryBreaking(boolean symmetryBreaking) {
+		this.symmetryBreaking = symmetryBreaking;
+	}
+
+	/**
+	 * Creates a solver of the same kind continuing the search of this solver from the
+	 * current node, on a copy of the CSP. When symmetries are broken, the decisions
+	 * above the latest choice point, whose branch is forked, are copied below the base
+	 * of the new solver's search, which never backtracks them.
+	 *
+	 * @param snapshot A copy of the CSP taken at the current node.
+	 * @return The new solver.
+	 */
+	@Override
+	BranchingSolver spawn(BinaryCSP snapshot) {
+		// newSolver() creates a solver of the same kind as this one.
+		BranchingSolver child = (BranchingSolver) super.spawn(snapshot);
+		if (symmetryBreaking) {
+			for (int i = 0; i < stack.size() - 1; i++) {
+				ChoicePoint cp = stack.get(i);
+				ChoicePoint copy = child.stack.push();
+				copy.set(snapshot.getVar(cp.var.order()), cp.val, null, 0);
+				copy.positive = cp.positive;
+			}
+		}
+		return child;
+	}
+
+	/**
+	 * Explores the right branch of a node, removing a value from a variable. Used by
+	 * parallel search to continue a forked branch in a new solver.
+	 *
+	 * @param var The variable branched on.
+	 * @param val The value branched on.
+	 */
+	protected void branchRight(BinaryVariable var, int val) {
+		ChoicePoint cp = stack.push();
+		cp.set(var, val, null, trail.marks());
+		// The left branch is explored by the solver that forked this one.
+		cp.branch = 1;
+		search(stack.size() - 1, branch(cp));
+	}
+
+	/**
+	 * Breaks the declared symmetries below the current node, with symmetry breaking
+	 * during search (SBDS). Each right branch var != val on the path is taken once every
+	 * solution below its left branch has been found. A symmetry mapping each decision
+	 * above that branch to an assignment the domains now imply maps those solutions onto
+	 * every solution in which its image of var = val holds, so the image value is
+	 * removed from the image variable. Deeper decisions can complete the images, so the
+	 * whole path is checked again at each node. The removals are recorded on the trail
+	 * under a new mark.
+	 *
+	 * @return The number of variables pruned, held first in symmetric, or -1 if every
+	 *         solution below the node is symmetric to one already found.
+	 */
+	protected int breakSymmetries() {
+		if (!symmetryBreaking || csp.symmetries().isEmpty()) {
+			return 0;
+		}
+		trail.mark();
+		int pruned = 0;
+		for (Symmetry symmetry : csp.symmetries()) {
+			boolean active = true;
+			for (int i = 0; i < stack.size() && active; i++) {
+				ChoicePoint cp = stack.get(i);
+				if (cp.positive) {
+					active = implied(symmetry, cp.var, cp.val);
+					continue;
+				}
+				BinaryVariable image = csp.getVar(symmetry.var(cp.var.order()));
+				int imageVal = symmetry.val(cp.val);
+				if (image.assigned()) {
+					if (image.value() == imageVal) {
+						return -1;
+					}
+				} else if (imageVal != Domain.NONE && image.domain().contains(imageVal)) {
+					prune(image, imageVal);
+					if (image.domain().isEmpty()) {
+						return -1;
+					}
+					int j = 0;
+					while (j < pruned && symmetric[j] != image) {
+						j++;
+					}
+					if (j == pruned) {
+						symmetric[pruned++] = image;
+					}
+				}
+			}
+		}
+		return pruned;
+	}
+
+	/**
+	 * Checks if a symmetry maps an assignment to an assignment implied by the domains:
+	 * the image variable is assigned the image value, or has it as its only value.
+	 *
+	 * @param symmetry The symmetry.
+	 * @param var The variable assigned.
+	 * @param val The value assigned.
+	 * @return True, if the image of the assignment is implied.
+	 */
+	private boolean implied(Symmetry symmetry, BinaryVariable var, int val) {
+		BinaryVariable image = csp.getVar(symmetry.var(var.order()));
+		int imageVal = symmetry.val(val);
+		if (image.assigned()) {
+			return image.value() == imageVal;
+		}
+		return image.domain().size() == 1 && image.domain().first() == imageVal;
+	}
+}
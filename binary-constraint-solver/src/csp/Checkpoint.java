@@ -0,0 +1,381 @@
+package csp;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Saves the state of a search to a file, so that a long search that is interrupted can
+ * be resumed where it stopped. A checkpoint holds the decision path from the root to
+ * the current node, that is every choice point on the search stack with the branch it
+ * is exploring, and the counters of the search. Resuming replays the decisions, which
+ * rebuilds the domains of the node, and continues with the branches that remain, so no
+ * part of the search space is explored twice.
+ *
+ * Checkpoints are written by the search thread itself, at a consistent node, once a
+ * timer has marked the interval as elapsed. The search only checks a flag per node,
+ * and a checkpoint is a few bytes per decision, written to a temporary file that then
+ * replaces the previous checkpoint, so an interruption while writing loses nothing.
+ *
+ * The file is big-endian: the magic number "CSPK", the format version, the number of
+ * variables, the name of the solver, whether it labels variables with each of their
+ * values (d-way branching), the counters, the first solution found, if any, the
+ * weights of the constraints with dom/wdeg, and one record per choice point: the
+ * variable, the value, the number of branches taken and, with d-way branching, the
+ * values in the order they are tried. The random value ordering continues with a new
+ * sequence of random numbers after resuming.
+ */
+public final class Checkpoint {
+
+    // The magic number at the start of the file, "CSPK" in ASCII.
+    static final int MAGIC = 0x4353504B;
+
+    // The version of the format.
+    static final int VERSION = 2;
+
+    // The file checkpoints are written to or read from.
+    private final String file;
+
+    // Set by the timer once the interval since the last checkpoint has elapsed.
+    private volatile boolean due;
+
+    // Marks the interval as elapsed, or null if not started.
+    private ScheduledExecutorService timer;
+
+    // The number of checkpoints written and the time spent writing them in nanoseconds.
+    private int written;
+    private long writeTime;
+
+    // The solver and CSP of a checkpoint read from a file.
+    private int noVariables;
+    private String solverName;
+    private boolean labelling;
+
+    // The counters of a checkpoint read from a file, with the time spent solving in
+    // nanoseconds, and the first solution, or null if none had been found.
+    private long searchNodes;
+    private long restarts;
+    private long arcRevisions;
+    private long constraintChecks;
+    private long elapsed;
+    private long solutions;
+    private int[] solution;
+
+    // The weights of the constraints of a checkpoint read from a file, in the order
+    // given by constraints() followed by the table constraints, or null if the
+    // ordering does not use them.
+    private int[] weights;
+
+    // The choice points of a checkpoint read from a file, from the root.
+    private int[] vars;
+    private int[] vals;
+    private int[] branches;
+    private int[][] valueLists;
+
+    /**
+     * Creates a new checkpoint file.
+     *
+     * @param file The file.
+     */
+    public Checkpoint(String file) {
+        this.file = file;
+        this.due = false;
+        this.written = 0;
+        this.writeTime = 0;
+    }
+
+    /**
+     * Starts the timer marking each interval at which a checkpoint is written.
+     *
+     * @param interval The interval in milliseconds.
+     */
+    public void start(long interval) {
+        timer = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "checkpoint-timer");
+            thread.setDaemon(true);
+            return thread;
+        });
+        timer.scheduleAtFixedRate(() -> due = true, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops the timer and deletes the checkpoint file, once the search it saves has
+     * finished and no longer needs to be resumed.
+     *
+     * @throws IOException If the file cannot be deleted.
+     */
+    public void finish() throws IOException {
+        if (timer != null) {
+            timer.shutdownNow();
+            timer = null;
+        }
+        Files.deleteIfExists(Paths.get(file));
+    }
+
+    /**
+     * Checks if a checkpoint should be written.
+     *
+     * @return True, if the interval since the last checkpoint has elapsed.
+     */
+    boolean due() {
+        return due;
+    }
+
+    /**
+     * Gets the number of checkpoints written.
+     *
+     * @return The number of checkpoints.
+     */
+    public int written() {
+        return written;
+    }
+
+    /**
+     * Gets the time spent writing checkpoints.
+     *
+     * @return The time in nanoseconds.
+     */
+    public long writeTime() {
+        return writeTime;
+    }
+
+    /**
+     * Writes the state of a search at a consistent node. A checkpoint that cannot be
+     * written is reported and the search carries on.
+     *
+     * @param solver The solver.
+     */
+    void write(Solver solver) {
+        due = false;
+        long start = System.nanoTime();
+        Path target = Paths.get(file);
+        Path temporary = Paths.get(file + ".tmp");
+        try {
+            try (DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(temporary)))) {
+                out.writeInt(MAGIC);
+                out.writeInt(VERSION);
+                out.writeInt(solver.csp.noVariables());
+                out.writeUTF(solver.getClass().getSimpleName());
+                out.writeBoolean(solver.labelling());
+                out.writeLong(solver.searchNodes);
+                out.writeLong(solver.restarts);
+                out.writeLong(solver.arcRevisions);
+                out.writeLong(solver.constraintChecks);
+                out.writeLong(start - solver.startTime);
+                out.writeLong(solver.solutions.get());
+                writeValues(out, solver.solution);
+                if (solver.ordering == VariableOrdering.DOM_WDEG) {
+                    List<BinaryArc> constraints = constraints(solver.csp);
+                    List<TableConstraint> tables = solver.csp.tables();
+                    out.writeInt(constraints.size() + tables.size());
+                    for (BinaryArc arc : constraints) {
+                        out.writeInt(arc.weight());
+                    }
+                    for (TableConstraint table : tables) {
+                        out.writeInt(table.weight());
+                    }
+                } else {
+                    out.writeInt(-1);
+                }
+                SearchStack stack = solver.stack;
+                out.writeInt(stack.size());
+                for (int i = 0; i < stack.size(); i++) {
+                    ChoicePoint cp = stack.get(i);
+                    out.writeInt(cp.var.order());
+                    out.writeInt(cp.val);
+                    out.writeInt(cp.branch);
+                    writeValues(out, cp.vals);
+                }
+            }
+            Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            written++;
+        } catch (IOException e) {
+            System.out.println(e);
+        }
+        writeTime += System.nanoTime() - start;
+    }
+
+    /**
+     * Writes an array of values, preceded by its length, or -1 if it is null.
+     *
+     * @param out The stream.
+     * @param values The values, or null.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static void writeValues(DataOutputStream out, int[] values) throws IOException {
+        if (values == null) {
+            out.writeInt(-1);
+            return;
+        }
+        out.writeInt(values.length);
+        for (int value : values) {
+            out.writeInt(value);
+        }
+    }
+
+    /**
+     * Gets one arc of each constraint of a CSP, in the order of the variables.
+     *
+     * @param csp The CSP.
+     * @return The arcs.
+     */
+    private static List<BinaryArc> constraints(BinaryCSP csp) {
+        List<BinaryArc> constraints = new ArrayList<>();
+        for (BinaryVariable var : csp.getVars()) {
+            for (BinaryArc arc : csp.futureArcs(var)) {
+                if (arc.future().order() > var.order()) {
+                    constraints.add(arc);
+                }
+            }
+        }
+        return constraints;
+    }
+
+    /**
+     * Reads a checkpoint from a file.
+     *
+     * @param file The file.
+     * @return The checkpoint.
+     * @throws IOException If an I/O error occurs or the file is not a checkpoint.
+     */
+    public static Checkpoint read(String file) throws IOException {
+        Checkpoint checkpoint = new Checkpoint(file);
+        try (DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(Paths.get(file))))) {
+            if (in.readInt() != MAGIC) {
+                throw new IOException(file + " is not a checkpoint");
+            }
+            int version = in.readInt();
+            if (version != VERSION) {
+                throw new IOException("Unsupported checkpoint version " + version);
+            }
+            checkpoint.noVariables = in.readInt();
+            checkpoint.solverName = in.readUTF();
+            checkpoint.labelling = in.readBoolean();
+            checkpoint.searchNodes = in.readLong();
+            checkpoint.restarts = in.readLong();
+            checkpoint.arcRevisions = in.readLong();
+            checkpoint.constraintChecks = in.readLong();
+            checkpoint.elapsed = in.readLong();
+            checkpoint.solutions = in.readLong();
+            checkpoint.solution = readValues(in);
+            checkpoint.weights = readValues(in);
+            int depth = in.readInt();
+            checkpoint.vars = new int[depth];
+            checkpoint.vals = new int[depth];
+            checkpoint.branches = new int[depth];
+            checkpoint.valueLists = new int[depth][];
+            for (int i = 0; i < depth; i++) {
+                checkpoint.vars[i] = in.readInt();
+                checkpoint.vals[i] = in.readInt();
+                checkpoint.branches[i] = in.readInt();
+                checkpoint.valueLists[i] = readValues(in);
+                if (checkpoint.vars[i] < 0 || checkpoint.vars[i] >= checkpoint.noVariables || checkpoint.branches[i] < 1) {
+                    throw new IOException("Malformed choice point " + i + " in " + file);
+                }
+            }
+        }
+        return checkpoint;
+    }
+
+    /**
+     * Reads an array of values written by writeValues().
+     *
+     * @param in The stream.
+     * @return The values, or null.
+     * @throws IOException If an I/O error occurs.
+     */
+    private static int[] readValues(DataInputStream in) throws IOException {
+        int length = in.readInt();
+        if (length < 0) {
+            return null;
+        }
+        int[] values = new int[length];
+        for (int i = 0; i < length; i++) {
+            values[i] = in.readInt();
+        }
+        return values;
+    }
+
+    /**
+     * Checks if the checkpoint was written by a solver of the same kind, with the same
+     * branching, for a CSP with the same number of variables.
+     *
+     * @param solver The solver.
+     * @return True, if the solver can resume from the checkpoint.
+     */
+    public boolean matches(Solver solver) {
+        return noVariables == solver.csp.noVariables() && solverName.equals(solver.getClass().getSimpleName())
+                && labelling == solver.labelling();
+    }
+
+    /**
+     * Gets the number of decisions from the root to the node of the checkpoint.
+     *
+     * @return The number of decisions.
+     */
+    public int depth() {
+        return vars.length;
+    }
+
+    /**
+     * Gets the number of search nodes explored before the checkpoint.
+     *
+     * @return The number of search nodes.
+     */
+    public long searchNodes() {
+        return searchNodes;
+    }
+
+    /**
+     * Replays the decisions of the checkpoint, pushing each choice point on the stack
+     * of a solver with the branch it was exploring, and restores the counters and the
+     * weights of the constraints. Called by the solver at the root, once its root
+     * propagation is done.
+     *
+     * @param solver The solver.
+     * @return True, if the node reached is consistent, false otherwise.
+     */
+    boolean replay(Solver solver) {
+        if (weights != null) {
+            List<BinaryArc> constraints = constraints(solver.csp);
+            List<TableConstraint> tables = solver.csp.tables();
+            for (int i = 0; i < weights.length && i < constraints.size() + tables.size(); i++) {
+                if (i < constraints.size()) {
+                    constraints.get(i).setWeight(weights[i]);
+                } else {
+                    tables.get(i - constraints.size()).setWeight(weights[i]);
+                }
+            }
+        }
+        boolean consistent = true;
+        for (int i = 0; i < vars.length && consistent; i++) {
+            ChoicePoint cp = solver.stack.push();
+            cp.set(solver.csp.getVar(vars[i]), vals[i], valueLists[i], solver.trail.marks());
+            solver.replay(cp);
+            // Take the branch again, which counts as one more branch taken.
+            cp.branch = branches[i] - 1;
+            consistent = solver.branch(cp);
+        }
+
+        // The replayed nodes were already counted before the checkpoint.
+        solver.searchNodes = searchNodes;
+        solver.restarts = restarts;
+        solver.arcRevisions = arcRevisions;
+        solver.constraintChecks = constraintChecks;
+        solver.startTime -= elapsed;
+        solver.solutions.set(solutions);
+        solver.solution = solution;
+        return consistent;
+    }
+}
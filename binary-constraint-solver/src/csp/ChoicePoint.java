@@ -0,0 +1,96 @@
+package csp;
+
+import java.util.concurrent.ForkJoinTask;
+
+/**
+ * A node of the search tree at which a decision was taken, together with the branch
+ * currently explored below it. With 2-way branching, the left branch assigns the value
+ * (var = val) and the right branch removes it (var != val). Solvers labelling a
+ * variable with each of its values in turn (d-way branching) take one branch per value.
+ */
+public final class ChoicePoint {
+
+    // The variable branched on, and the value of the current branch.
+    BinaryVariable var;
+    int val;
+
+    // Whether the current branch assigns the value rather than removing it.
+    boolean positive;
+
+    // The number of branches taken so far.
+    int branch;
+
+    // The values to try in turn with d-way branching, or null with 2-way branching.
+    int[] vals;
+
+    // The number of marks on the trail at the node, which backtracking returns to.
+    int mark;
+
+    // The right branch, if it has been forked as a task for another thread, or null.
+    ForkJoinTask<?> forked;
+
+    /**
+     * Sets the decision of the choice point, before any branch has been taken.
+     *
+     * @param var The variable branched on.
+     * @param val The value branched on, or Domain.NONE with d-way branching.
+     * @param vals The values to try in turn with d-way branching, or null.
+     * @param mark The number of marks on the trail at the node.
+     */
+    void set(BinaryVariable var, int val, int[] vals, int mark) {
+        this.var = var;
+        this.val = val;
+        this.vals = vals;
+        this.mark = mark;
+        this.positive = false;
+        this.branch = 0;
+        this.forked = null;
+    }
+
+    /**
+     * Gets the variable branched on.
+     *
+     * @return The variable.
+     */
+    public BinaryVariable var() {
+        return var;
+    }
+
+    /**
+     * Gets the value of the current branch.
+     *
+     * @return The value.
+     */
+    public int val() {
+        return val;
+    }
+
+    /**
+     * Checks if the current branch assigns the value rather than removing it.
+     *
+     * @return True for var = val, false for var != val.
+     */
+    public boolean positive() {
+        return positive;
+    }
+
+    /**
+     * Checks if another value remains to be tried with d-way branching.
+     *
+     * @return True, if a value remains.
+     */
+    boolean hasNextVal() {
+        return branch < vals.length;
+    }
+
+    /**
+     * Moves on to the next value with d-way branching.
+     *
+     * @return The value.
+     */
+    int nextVal() {
+        positive = true;
+        val = vals[branch++];
+        return val;
+    }
+}
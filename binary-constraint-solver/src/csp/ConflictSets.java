@@ -0,0 +1,87 @@
+package csp;
+
+import java.util.BitSet;
+
+/**
+ * The conflict sets of conflict-directed backjumping (CBJ). The conflict set of a level
+ * of the search holds the earlier levels whose assignments ruled out values of the
+ * variable assigned at that level. Once every value has been ruled out, the search
+ * jumps back to the deepest level in the conflict set, which inherits the rest of the
+ * set, skipping the levels in between, which played no part in the failure.
+ */
+public final class ConflictSets {
+
+    // The conflict set of each level, as a set of levels.
+    private BitSet[] sets;
+
+    /**
+     * Creates new empty conflict sets.
+     *
+     * @param levels The number of levels of the search.
+     */
+    public ConflictSets(int levels) {
+        sets = new BitSet[levels];
+        for (int i = 0; i < levels; i++) {
+            sets[i] = new BitSet(levels);
+        }
+    }
+
+    /**
+     * Empties the conflict set of a level, before its variable is labelled.
+     *
+     * @param level The level.
+     */
+    public void clear(int level) {
+        sets[level].clear();
+    }
+
+    /**
+     * Adds an earlier level to the conflict set of a level.
+     *
+     * @param level The level.
+     * @param conflict The earlier level.
+     */
+    public void add(int level, int conflict) {
+        sets[level].set(conflict);
+    }
+
+    /**
+     * Adds earlier levels to the conflict set of a level. The level itself is ignored.
+     *
+     * @param level The level.
+     * @param conflicts The levels.
+     */
+    public void addAll(int level, BitSet conflicts) {
+        sets[level].or(conflicts);
+        sets[level].clear(level);
+    }
+
+    /**
+     * Adds every earlier level to the conflict set of a level. After a solution is
+     * found, this makes the search go back one level at a time, so that no other
+     * solution is skipped.
+     *
+     * @param level The level.
+     */
+    public void addEarlier(int level) {
+        sets[level].set(0, level);
+    }
+
+    /**
+     * Finds the level to jump back to once every value of a level has been ruled out,
+     * and passes the rest of the conflict set on to it.
+     *
+     * @param level The level.
+     * @return The deepest level in the conflict set, or -1 if it is empty, in which case
+     *         the search is over.
+     */
+    public int backjump(int level) {
+        BitSet set = sets[level];
+        int target = set.length() - 1;
+        if (target >= 0) {
+            set.clear(target);
+            sets[target].or(set);
+        }
+        return target;
+    }
+}
@@ -0,0 +1,148 @@
+package csp;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+
+/**
+ * Decomposes a CSP into the connected components of its constraint graph and solves
+ * each component as an independent CSP on a thread pool. A solution of the CSP is a
+ * solution of every component, so the components are searched separately, and the
+ * number of solutions is the product of the numbers of solutions of the components.
+ */
+public final class Decomposition {
+
+    // The CSP being decomposed.
+    private final BinaryCSP csp;
+
+    // The orders of the variables of each component.
+    private final List<int[]> components;
+
+    /**
+     * Decomposes a CSP into components.
+     *
+     * @param csp The CSP.
+     */
+    public Decomposition(BinaryCSP csp) {
+        this.csp = csp;
+        this.components = csp.components();
+        // Start the largest components first, so that they do not finish last.
+        components.sort(Comparator.comparingInt((int[] component) -> component.length).reversed());
+    }
+
+    /**
+     * Gets the number of components.
+     *
+     * @return The number of components.
+     */
+    public int size() {
+        return components.size();
+    }
+
+    /**
+     * Gets the number of variables in the largest component.
+     *
+     * @return The number of variables.
+     */
+    public int largest() {
+        return components.isEmpty() ? 0 : components.get(0).length;
+    }
+
+    /**
+     * Solves every component with its own solver, on a pool of threads. Once every
+     * component has been solved, the root solver holds the solution made of the first
+     * solution of each component, if every component has one, the number of
+     * solutions up to its limit and the statistics of every component. Each component
+     * only needs to find as many solutions as the limit, since the count is then
+     * already known to reach it. The search stops as soon as a component has no solution.
+     *
+     * @param root The solver for the whole CSP, whose solution limit is used.
+     * @param factory Creates the solver for a component.
+     * @param threads The number of threads.
+     */
+    public void solve(Solver root, Function<BinaryCSP, Solver> factory, int threads) {
+        root.startTime = System.nanoTime();
+        List<Solver> solvers = new ArrayList<>();
+        List<Callable<Solver>> tasks = new ArrayList<>();
+        for (int[] component : components) {
+            Solver solver = factory.apply(csp.subproblem(component));
+            solver.setSolutionLimit(root.solutionLimit);
+            solvers.add(solver);
+            tasks.add(() -> {
+                solver.solve();
+                if (solver.solution() == null) {
+                    // Without a solution for this component, there is none for the CSP.
+                    for (Solver other : solvers) {
+                        other.stop.set(true);
+                    }
+                }
+                return solver;
+            });
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        try {
+            for (Future<Solver> future : pool.invokeAll(tasks)) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new RuntimeException(e);
+        } catch (ExecutionException e) {
+            throw new RuntimeException(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+        root.endTime = System.nanoTime();
+
+        // Merge the solutions and statistics of the components.
+        long count = 1;
+        int[] solution = new int[csp.noVariables()];
+        for (int i = 0; i < components.size(); i++) {
+            Solver solver = solvers.get(i);
+            root.searchNodes += solver.searchNodes;
+            root.restarts += solver.restarts;
+            root.arcRevisions += solver.arcRevisions;
+            root.constraintChecks += solver.constraintChecks;
+            if (root instanceof MAC) {
+                ((MAC) root).addPreprocessing((MAC) solver);
+            }
+            count = multiply(count, solver.solutionCount());
+            if (solver.solution() != null) {
+                int[] orders = components.get(i);
+                for (int j = 0; j < orders.length; j++) {
+                    solution[orders[j]] = solver.solution()[j];
+                }
+            }
+        }
+        if (root.solutionLimit > 0) {
+            count = Math.min(count, root.solutionLimit);
+        }
+        root.solutions.set(count);
+        if (count > 0) {
+            root.solution = solution;
+            if (root.listener != null) {
+                root.listener.solutionFound(1, solution);
+            }
+        }
+    }
+
+    /**
+     * Multiplies two numbers of solutions, saturating at the largest long.
+     *
+     * @param a The first number.
+     * @param b The second number.
+     * @return The product, or Long.MAX_VALUE if it overflows.
+     */
+    private static long multiply(long a, long b) {
+        long high = Math.multiplyHigh(a, b);
+        long product = a * b;
+        return (high != 0 || product < 0) ? Long.MAX_VALUE : product;
+    }
+}
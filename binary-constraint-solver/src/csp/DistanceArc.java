@@ -0,0 +1,140 @@
+package csp;
+
+import java.io.IOException;
+import java.util.Arrays;
+
+/**
+ * Represents a binary arc of the intensional constraint |current - future| != d, for
+ * each of a set of forbidden distances d. With the distances 0 and r, it is the
+ * constraint between two queens r rows apart. Each current value forbids at most two
+ * future values per distance, so a future value can only lose its last support when
+ * the current domain is that small, and otherwise the arc is not revised at all.
+ */
+public final class DistanceArc extends BinaryArc {
+
+    // The forbidden distances, sorted and distinct.
+    private final int[] distances;
+
+    /**
+     * Creates a new distance arc.
+     *
+     * @param current Current variable.
+     * @param future Future variable.
+     * @param distances The forbidden distances.
+     */
+    public DistanceArc(BinaryVariable current, BinaryVariable future, int... distances) {
+        super(current, future);
+        this.distances = Arrays.stream(distances).map(Math::abs).sorted().distinct().toArray();
+    }
+
+    @Override
+    protected BinaryArc createReverse() {
+        return new DistanceArc(future, current, distances);
+    }
+
+    @Override
+    protected BinaryArc copyOnto(BinaryVariable current, BinaryVariable future) {
+        return new DistanceArc(current, future, distances);
+    }
+
+    /**
+     * Combines the arc with another arc between the same variables. Not-equal and
+     * distance constraints merge into a single distance constraint forbidding the
+     * distances of both.
+     *
+     * @param other An arc with the same current and future variables.
+     * @return The combined arc, not linked to a reverse arc.
+     */
+    @Override
+    BinaryArc and(BinaryArc other) {
+        if (other instanceof NotEqualArc) {
+            int[] merged = Arrays.copyOf(distances, distances.length + 1);
+            return new DistanceArc(current, future, merged);
+        }
+        if (other instanceof DistanceArc) {
+            int[] otherDistances = ((DistanceArc) other).distances;
+            int[] merged = Arrays.copyOf(distances, distances.length + otherDistances.length);
+            System.arraycopy(otherDistances, 0, merged, distances.length, otherDistances.length);
+            return new DistanceArc(current, future, merged);
+        }
+        return super.and(other);
+    }
+
+    @Override
+    void write(BinaryCSPWriter writer) throws IOException {
+        for (int distance : distances) {
+            if (distance == 0) {
+                writer.notEqual(current.order(), future.order());
+            } else {
+                writer.distanceNotEqual(current.order(), future.order(), distance);
+            }
+        }
+    }
+
+    @Override
+    public boolean allows(int currentVal, int futureVal) {
+        int distance = Math.abs(currentVal - futureVal);
+        for (int forbidden : distances) {
+            if (distance == forbidden) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    public boolean hasSupport(int currentVal) {
+        return supportCount(currentVal) > 0;
+    }
+
+    @Override
+    public int supportCount(int currentVal) {
+        Domain domain = future.domain();
+        int count = domain.size();
+        for (int distance : distances) {
+            if (domain.contains(currentVal - distance)) {
+                count--;
+            }
+            if (distance != 0 && domain.contains(currentVal + distance)) {
+                count--;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * Revises the arc. Once the current variable can only take one value, the future
+     * values at a forbidden distance from it are pruned. Otherwise, the future values
+     * are only checked if the current domain is small enough for one to lose its last
+     * support, which needs every current value to be at a forbidden distance from it.
+     *
+     * @param solver The solver, which prunes values and counts constraint checks.
+     * @return True, if the domain of the future variable was pruned, false otherwise.
+     */
+    @Override
+    boolean revise(Solver solver) {
+        int val = currentSingleton();
+        if (val == Domain.NONE) {
+            int forbidden = 0;
+            for (int distance : distances) {
+                forbidden += (distance == 0) ? 1 : 2;
+            }
+            return current.domain().size() <= forbidden && super.revise(solver);
+        }
+
+        boolean pruned = false;
+        Domain domain = future.domain();
+        for (int distance : distances) {
+            solver.constraintChecks++;
+            if (domain.contains(val - distance)) {
+                solver.prune(future, val - distance);
+                pruned = true;
+            }
+            if (distance != 0 && domain.contains(val + distance)) {
+                solver.prune(future, val + distance);
+                pruned = true;
+            }
+        }
+        return pruned;
+    }
+}
@@ -0,0 +1,223 @@
+package csp;
+
+/**
+ * Represents the domain of a variable as a bitset over [lowerBound, upperBound]. Bit i
+ * of the bitset is set if and only if the value lowerBound + i is in the domain. The
+ * number of values in the domain is tracked so that the size is available in O(1).
+ */
+public final class Domain {
+
+    // Returned by first() and next() when there is no further value in the domain.
+    public static final int NONE = Integer.MIN_VALUE;
+
+    // The bounds of the initial domain (inclusive).
+    private final int lowerBound, upperBound;
+
+    // The bitset of values, 64 values per word.
+    private final long[] words;
+
+    // The number of values in the domain.
+    private int size;
+
+    /**
+     * Creates a new domain containing every value in [lowerBound, upperBound].
+     *
+     * @param lowerBound Lower bound of the domain.
+     * @param upperBound Upper bound of the domain.
+     */
+    public Domain(int lowerBound, int upperBound) {
+        this.lowerBound = lowerBound;
+        this.upperBound = upperBound;
+
+        int range = Math.max(0, upperBound - lowerBound + 1);
+        words = new long[(range + 63) >>> 6];
+        for (int i = 0; i < range >>> 6; i++) {
+            words[i] = -1L;
+        }
+        if ((range & 63) != 0) {
+            words[words.length - 1] = (1L << (range & 63)) - 1;
+        }
+        size = range;
+    }
+
+    /**
+     * Creates a copy of a domain.
+     *
+     * @param other The domain to be copied.
+     */
+    public Domain(Domain other) {
+        lowerBound = other.lowerBound;
+        upperBound = other.upperBound;
+        words = other.words.clone();
+        size = other.size;
+    }
+
+    /**
+     * Gets the lower bound of the initial domain.
+     *
+     * @return Lower bound of the domain.
+     */
+    public int lowerBound() {
+        return lowerBound;
+    }
+
+    /**
+     * Gets the upper bound of the initial domain.
+     *
+     * @return Upper bound of the domain.
+     */
+    public int upperBound() {
+        return upperBound;
+    }
+
+    /**
+     * Gets the words of the bitset. Bit i of the bitset represents the value lowerBound + i.
+     *
+     * @return The words of the bitset.
+     */
+    long[] words() {
+        return words;
+    }
+
+    /**
+     * Gets the number of values in the domain.
+     *
+     * @return Number of values in the domain.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Checks if the domain is empty.
+     *
+     * @return True if the domain is empty, false otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Checks if a value is in the domain.
+     *
+     * @param val Value to be tested.
+     * @return True if the value is in the domain, false otherwise.
+     */
+    public boolean contains(int val) {
+        if (val < lowerBound || val > upperBound) {
+            return false;
+        }
+        int offset = val - lowerBound;
+        return (words[offset >>> 6] & (1L << offset)) != 0;
+    }
+
+    /**
+     * Adds a value to the domain. Values outside the initial bounds are ignored.
+     *
+     * @param val Value to be added.
+     * @return True if the domain changed, false otherwise.
+     */
+    public boolean add(int val) {
+        if (val < lowerBound || val > upperBound) {
+            return false;
+        }
+        int offset = val - lowerBound;
+        long bit = 1L << offset;
+        if ((words[offset >>> 6] & bit) != 0) {
+            return false;
+        }
+        words[offset >>> 6] |= bit;
+        size++;
+        return true;
+    }
+
+    /**
+     * Removes a value from the domain.
+     *
+     * @param val Value to be removed.
+     * @return True if the domain changed, false otherwise.
+     */
+    public boolean remove(int val) {
+        if (val < lowerBound || val > upperBound) {
+            return false;
+        }
+        int offset = val - lowerBound;
+        long bit = 1L << offset;
+        if ((words[offset >>> 6] & bit) == 0) {
+            return false;
+        }
+        words[offset >>> 6] &= ~bit;
+        size--;
+        return true;
+    }
+
+    /**
+     * Gets the smallest value in the domain.
+     *
+     * @return The smallest value, or NONE if the domain is empty.
+     */
+    public int first() {
+        for (int i = 0; i < words.length; i++) {
+            if (words[i] != 0) {
+                return lowerBound + (i << 6) + Long.numberOfTrailingZeros(words[i]);
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Gets the largest value in the domain.
+     *
+     * @return The largest value, or NONE if the domain is empty.
+     */
+    public int last() {
+        for (int i = words.length - 1; i >= 0; i--) {
+            if (words[i] != 0) {
+                return lowerBound + (i << 6) + 63 - Long.numberOfLeadingZeros(words[i]);
+            }
+        }
+        return NONE;
+    }
+
+    /**
+     * Gets the smallest value in the domain that is greater than the given value. Values
+     * may be removed from the domain while iterating with this method.
+     *
+     * @param val The value to start after.
+     * @return The next value, or NONE if there is no greater value.
+     */
+    public int next(int val) {
+        if (val < lowerBound) {
+            return first();
+        }
+        int offset = val - lowerBound + 1;
+        int i = offset >>> 6;
+        if (offset > upperBound - lowerBound || i >= words.length) {
+            return NONE;
+        }
+        long word = words[i] & (-1L << offset);
+        while (word == 0) {
+            if (++i == words.length) {
+                return NONE;
+            }
+            word = words[i];
+        }
+        return lowerBound + (i << 6) + Long.numberOfTrailingZeros(word);
+    }
+
+    /**
+     * Returns a string representation of the domain.
+     *
+     * @return String representation of the domain.
+     */
+    public String toString() {
+        StringBuilder result = new StringBuilder("[");
+        for (int val = first(); val != NONE; val = next(val)) {
+            if (result.length() > 1) {
+                result.append(", ");
+            }
+            result.append(val);
+        }
+        return result.append("]").toString();
+    }
+}
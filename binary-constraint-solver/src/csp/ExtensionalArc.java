@@ -0,0 +1,256 @@
+package csp;
+
+import java.util.Arrays;
+import java.util.Objects;
+import java.util.Set;
+
+/**
+ * Represents a binary arc of an extensional constraint, given by its allowed tuples
+ * compiled into a bit-matrix. Row i of the matrix is a bitset of the future values
+ * supported by the current value lowerBound + i, laid out in the same way as the
+ * domain of the future variable.
+ */
+public final class ExtensionalArc extends BinaryArc {
+
+    // The compiled matrix of allowed tuples, one row per current value.
+    private final long[][] supports;
+
+    /**
+     * Creates a new binary arc, compiling the set of allowed tuples. Tuples with a
+     * value outside the initial domain of its variable can never be used and are dropped.
+     *
+     * @param current Current variable.
+     * @param future Future variable.
+     * @param tuples Set of allowed tuples.
+     */
+    public ExtensionalArc(BinaryVariable current, BinaryVariable future, Set<BinaryTuple> tuples) {
+        this(current, future);
+        for (BinaryTuple tuple : tuples) {
+            allow(tuple.val1(), tuple.val2());
+        }
+    }
+
+    /**
+     * Creates a new binary arc with no allowed tuples, to be filled in with allow().
+     *
+     * @param current Current variable.
+     * @param future Future variable.
+     */
+    ExtensionalArc(BinaryVariable current, BinaryVariable future) {
+        this(current, future, emptyMatrix(current.domain(), future.domain()));
+    }
+
+    /**
+     * Creates a new binary arc from a compiled matrix of allowed tuples.
+     *
+     * @param current Current variable.
+     * @param future Future variable.
+     * @param supports The compiled matrix of allowed tuples.
+     */
+    ExtensionalArc(BinaryVariable current, BinaryVariable future, long[][] supports) {
+        super(current, future);
+        this.supports = supports;
+    }
+
+    /**
+     * Transposes the matrix of allowed tuples into the matrix of the reverse arc.
+     *
+     * @return The reverse arc.
+     */
+    @Override
+    protected BinaryArc createReverse() {
+        Domain currentDomain = current.domain();
+        Domain futureDomain = future.domain();
+        long[][] transposed = emptyMatrix(futureDomain, currentDomain);
+        for (int i = 0; i < supports.length; i++) {
+            long[] row = supports[i];
+            for (int w = 0; w < row.length; w++) {
+                for (long word = row[w]; word != 0; word &= word - 1) {
+                    int j = (w << 6) + Long.numberOfTrailingZeros(word);
+                    transposed[j][i >>> 6] |= 1L << i;
+                }
+            }
+        }
+        return new ExtensionalArc(future, current, transposed);
+    }
+
+    @Override
+    protected BinaryArc copyOnto(BinaryVariable current, BinaryVariable future) {
+        return new ExtensionalArc(current, future, supports);
+    }
+
+    /**
+     * Adds an allowed tuple to the compiled matrix while the arc is being built. Tuples
+     * with a value outside the initial domain of its variable are dropped.
+     *
+     * @param currentVal Value of the current variable.
+     * @param futureVal Value of the future variable.
+     */
+    void allow(int currentVal, int futureVal) {
+        Domain currentDomain = current.domain();
+        Domain futureDomain = future.domain();
+        if (inBounds(currentDomain, currentVal) && inBounds(futureDomain, futureVal)) {
+            int offset = futureVal - futureDomain.lowerBound();
+            supports[currentVal - currentDomain.lowerBound()][offset >>> 6] |= 1L << offset;
+        }
+    }
+
+    /**
+     * Gets a copy of the compiled matrix of allowed tuples.
+     *
+     * @return The matrix, one row per current value, laid out like the future domain.
+     */
+    @Override
+    long[][] supports() {
+        long[][] copy = new long[supports.length][];
+        for (int i = 0; i < supports.length; i++) {
+            copy[i] = supports[i].clone();
+        }
+        return copy;
+    }
+
+    /**
+     * Creates a matrix with no allowed tuples between two domains.
+     *
+     * @param currentDomain Domain of the current variable.
+     * @param futureDomain Domain of the future variable.
+     * @return The empty matrix.
+     */
+    private static long[][] emptyMatrix(Domain currentDomain, Domain futureDomain) {
+        int rows = Math.max(0, currentDomain.upperBound() - currentDomain.lowerBound() + 1);
+        return new long[rows][futureDomain.words().length];
+    }
+
+    /**
+     * Checks if a value lies within the initial bounds of a domain.
+     *
+     * @param domain The domain.
+     * @param val The value.
+     * @return True if the value is within the bounds, false otherwise.
+     */
+    private static boolean inBounds(Domain domain, int val) {
+        return val >= domain.lowerBound() && val <= domain.upperBound();
+    }
+
+    /**
+     * Checks if a pair of values is allowed by the constraint.
+     *
+     * @param currentVal Value of the current variable.
+     * @param futureVal Value of the future variable.
+     * @return True if the pair is allowed, false otherwise.
+     */
+    @Override
+    public boolean allows(int currentVal, int futureVal) {
+        Domain currentDomain = current.domain();
+        Domain futureDomain = future.domain();
+        if (!inBounds(currentDomain, currentVal) || !inBounds(futureDomain, futureVal)) {
+            return false;
+        }
+        int offset = futureVal - futureDomain.lowerBound();
+        return (supports[currentVal - currentDomain.lowerBound()][offset >>> 6] & (1L << offset)) != 0;
+    }
+
+    /**
+     * Checks if a value of the current variable has a support in the future domain,
+     * by intersecting its row of the matrix with the future domain one word at a time.
+     *
+     * @param currentVal Value of the current variable.
+     * @return True if the value has a support, false otherwise.
+     */
+    @Override
+    public boolean hasSupport(int currentVal) {
+        Domain currentDomain = current.domain();
+        if (!inBounds(currentDomain, currentVal)) {
+            return false;
+        }
+        long[] row = supports[currentVal - currentDomain.lowerBound()];
+        long[] words = future.domain().words();
+        for (int w = 0; w < row.length; w++) {
+            if ((row[w] & words[w]) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Counts the supports of a value of the current variable in the future domain, by
+     * intersecting its row of the matrix with the future domain one word at a time.
+     *
+     * @param currentVal Value of the current variable.
+     * @return The number of future values supporting the value.
+     */
+    @Override
+    public int supportCount(int currentVal) {
+        Domain currentDomain = current.domain();
+        if (!inBounds(currentDomain, currentVal)) {
+            return 0;
+        }
+        long[] row = supports[currentVal - currentDomain.lowerBound()];
+        long[] words = future.domain().words();
+        int count = 0;
+        for (int w = 0; w < row.length; w++) {
+            count += Long.bitCount(row[w] & words[w]);
+        }
+        return count;
+    }
+
+    /**
+     * Revises the arc. Once the current variable is assigned, the row of its value is
+     * ANDed into the future domain one word at a time, and the values it clears are
+     * pruned through the solver. Otherwise, every future value is checked for a support.
+     *
+     * @param solver The solver, which prunes values and counts constraint checks.
+     * @return True, if the domain of the future variable was pruned, false otherwise.
+     */
+    @Override
+    boolean revise(Solver solver) {
+        if (!current.assigned()) {
+            return super.revise(solver);
+        }
+
+        Domain domain = future.domain();
+        long[] row = supports[current.value() - current.domain().lowerBound()];
+        long[] words = domain.words();
+        solver.constraintChecks += domain.size();
+        boolean pruned = false;
+        for (int w = 0; w < words.length; w++) {
+            // The removed bits are found before pruning, which clears them from the word.
+            for (long removed = words[w] & ~row[w]; removed != 0; removed &= removed - 1) {
+                solver.prune(future, domain.lowerBound() + (w << 6) + Long.numberOfTrailingZeros(removed));
+                pruned = true;
+            }
+        }
+        return pruned;
+    }
+
+    /**
+     * Computes the hash code of the arc.
+     *
+     * @return Hash code of the arc.
+     */
+    @Override
+    public int hashCode() {
+        return Objects.hash(current, future, Arrays.deepHashCode(supports));
+    }
+
+    /**
+     * Checks if two arcs are equal. They are equal if they have the same
+     * current and future variables and the same set of allowed tuples.
+     *
+     * @param obj Object to be compared.
+     */
+    @Override
+    public boolean equals(Object obj) {
+        if (this == obj) {
+            return true;
+        }
+        if (obj == null || getClass() != obj.getClass()) {
+            return false;
+        }
+        ExtensionalArc other = (ExtensionalArc) obj;
+        return Objects.equals(current, other.current)
+            && Objects.equals(future, other.future)
+            && Arrays.deepEquals(supports, other.supports);
+    }
+}
@@ -0,0 +1,309 @@
+package csp;
+
+import java.util.BitSet;
+
+/**
+ * Forward checking (FC) solver.
+ */
+public class FC extends BranchingSolver {
+
+	// Whether the search uses conflict-directed backjumping, the conflict sets of each
+	// depth if it does, the depths whose assignments pruned each variable, indexed by
+	// order, and the depth the search is jumping back to.
+	private boolean backjumping;
+	private ConflictSets conflicts;
+	private BitSet[] pruners;
+	private int jump;
+
+	/**
+	 * Creates a new forward checking solver for a given CSP.
+	 *
+	 * @param csp The constraint satisfaction problem to be solved.
+	 * @param ordering The variable ordering heuristic to be used.
+	 * @param valueOrdering The value ordering heuristic to be used.
+	 */
+	public FC(BinaryCSP csp, VariableOrdering ordering, ValueOrdering valueOrdering) {
+		super(csp, ordering, valueOrdering);
+		backjumping = false;
+	}
+
+	public void solve() {
+		startTime = System.nanoTime();
+		if (backjumping && parallel == null) {
+			conflicts = new ConflictSets(csp.noVariables());
+			pruners = new BitSet[csp.noVariables()];
+			for (int i = 0; i < pruners.length; i++) {
+				pruners[i] = new BitSet();
+			}
+			jump = csp.noVariables();
+		}
+		search();
+		endTime = System.nanoTime();
+	}
+
+	/**
+	 * Sets whether the search uses conflict-directed backjumping, with d-way branching,
+	 * rather than 2-way branching with chronological backtracking. Backjumping is not
+	 * used by parallel search, nor with table constraints, whose pruning it cannot
+	 * explain by the depths of single assignments, in which case it stays off.
+	 *
+	 * @param backjumping True to use conflict-directed backjumping.
+	 * @return False, if backjumping was asked for but the CSP has table constraints,
+	 *         true otherwise.
+	 */
+	public boolean setBackjumping(boolean backjumping) {
+		this.backjumping = backjumping && csp.tables().isEmpty();
+		return this.backjumping == backjumping;
+	}
+
+	@Override
+	protected Solver newSolver(BinaryCSP csp) {
+		FC solver = new FC(csp, ordering, valueOrdering);
+		solver.setBackjumping(backjumping);
+		solver.setSymmetryBreaking(symmetryBreaking);
+		return solver;
+	}
+
+	@Override
+	protected boolean labelling() {
+		return backjumping && parallel == null;
+	}
+
+	/**
+	 * With backjumping, the variable of a replayed choice point leaves the variables to
+	 * be assigned, and its conflict set, which is unknown, holds every earlier depth,
+	 * which makes the search backtrack chronologically from it.
+	 */
+	@Override
+	protected void replay(ChoicePoint cp) {
+		if (conflicts != null) {
+			variables.remove(cp.var);
+			conflicts.clear(depth);
+			conflicts.addEarlier(depth);
+		}
+	}
+
+	@Override
+	protected boolean leaf() {
+		if (stopped()) {
+			return true;
+		}
+		if (csp.completeAssignment()) {
+			solutionFound();
+			if (conflicts != null) {
+				// Go back one level at a time, so that no other solution is skipped.
+				conflicts.addEarlier(depth - 1);
+			}
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	protected void choose(ChoicePoint cp) {
+		BinaryVariable var = selectVar();
+		if (conflicts != null) {
+			variables.remove(var);
+			conflicts.clear(depth);
+			cp.set(var, Domain.NONE, orderedVals(var), trail.marks());
+			return;
+		}
+		cp.set(var, selectVal(var), null, trail.marks());
+		if (parallel != null && parallel.shouldSplit(depth)) {
+			// Let another thread explore the right branch while this one goes left.
+			cp.forked = parallel.forkRight(this, var, cp.val);
+		}
+	}
+
+	/**
+	 * Branches left, setting the variable to be equal to the value, or right, setting
+	 * it to be not equal to the value, and forward checks the decision. Both branches
+	 * then remove the values symmetric to the refuted values, if symmetries are broken,
+	 * which needs no forward checking since they assign no variable.
+	 * With backjumping, the next value of the variable is assigned instead.
+	 */
+	@Override
+	protected boolean branch(ChoicePoint cp) {
+		if (conflicts != null) {
+			return branchCBJ(cp);
+		}
+		BinaryVariable var = cp.var;
+		depth++;
+		countNode(depth);
+		if (cp.branch++ == 0) {
+			cp.positive = true;
+			assign(var, cp.val);
+
+			// Revise all future arcs from the variable.
+			if (reviseFutureArcs(var)) {
+				variables.remove(var);
+				return breakSymmetries() >= 0;
+			}
+			return false;
+		}
+		cp.positive = false;
+		deleteValue(var, cp.val);
+
+		// Check for a domain whipeout.
+		return !var.domain().isEmpty() && reviseFutureArcs(var) && breakSymmetries() >= 0;
+	}
+
+	/**
+	 * Undoes the pruning of the branch and its decision. The right branch is taken
+	 * after the left one, unless it has been forked, in which case it is waited for.
+	 */
+	@Override
+	protected boolean backtrack(ChoicePoint cp) {
+		if (conflicts != null) {
+			return backtrackCBJ(cp);
+		}
+		BinaryVariable var = cp.var;
+		if (cp.positive) {
+			if (!variables.contains(var)) {
+				variables.add(var);
+			}
+			undoPruning(cp.mark);
+			unassign(var);
+		} else {
+			undoPruning(cp.mark);
+			restoreValue(var, cp.val);
+		}
+		depth--;
+		if (cp.forked != null) {
+			cp.forked.join();
+			return false;
+		}
+		return cp.positive && !stopped();
+	}
+
+	/**
+	 * Revise all future arcs from a variable based on the current assignment.
+	 * Pruning the domains of future variables. The table constraints on the variable
+	 * are propagated once, without propagating their pruning any further.
+	 * 
+	 * @param current The variable to revise arcs from.
+	 * @return True, if the problem is arc consistent, false otherwise.
+	 */
+	private boolean reviseFutureArcs(BinaryVariable current) {
+		// Start a new group of removals on the trail, for undo later.
+		trail.mark();
+
+		// For each arc from the current variable, revise the arc.
+		long start = propagationStart();
+		boolean consistent = true;
+		for (BinaryArc arc : csp.futureArcs(current)) {
+			revise(arc);
+
+			// Check for a domain whipeout.
+			if (arc.future().domain().isEmpty()) {
+				consistent = false;
+				break;
+			}
+		}
+
+		// Filter the domains of the other variables of each table constraint.
+		for (TableConstraint table : csp.tables(current)) {
+			if (!consistent || !table.propagate(this, null)) {
+				consistent = false;
+				break;
+			}
+		}
+		propagationEnd(start);
+		return consistent;
+	}
+
+	/**
+	 * Assigns the next value of the variable and forward checks it, for forward
+	 * checking with conflict-directed backjumping (FC-CBJ). When forward checking
+	 * wipes out a domain, the depths that pruned that domain are added to the
+	 * conflict set.
+	 *
+	 * @param cp The choice point.
+	 * @return True, if no domain was wiped out, false otherwise.
+	 */
+	private boolean branchCBJ(ChoicePoint cp) {
+		int level = depth;
+		depth++;
+		countNode(depth);
+		assign(cp.var, cp.nextVal());
+		int wipeout = forwardCheck(cp.var, level);
+		if (wipeout >= 0) {
+			conflicts.addAll(level, pruners[wipeout]);
+			return false;
+		}
+		return true;
+	}
+
+	/**
+	 * Undoes the assignment of the variable, for FC-CBJ. Once every value has been
+	 * tried, the depths that pruned the variable itself are added to the conflict set,
+	 * and the search jumps back to the deepest one.
+	 *
+	 * @param cp The choice point.
+	 * @return True, if the next value should be tried, false otherwise.
+	 */
+	private boolean backtrackCBJ(ChoicePoint cp) {
+		BinaryVariable var = cp.var;
+		int level = depth - 1;
+		undoLevel(level);
+		unassign(var);
+		depth--;
+		if (!stopped()) {
+			if (jump < level) {
+				// This variable played no part in the failure below, so jump past it.
+				variables.add(var);
+				return false;
+			}
+			jump = csp.noVariables();
+			if (cp.hasNextVal()) {
+				return true;
+			}
+			conflicts.addAll(level, pruners[var.order()]);
+			jump = conflicts.backjump(level);
+		}
+		variables.add(var);
+		return false;
+	}
+
+	/**
+	 * Revises all future arcs from a variable, recording the depth of the assignment as
+	 * a pruner of each variable it prunes.
+	 *
+	 * @param current The variable to revise arcs from.
+	 * @param level The depth at which the variable was assigned.
+	 * @return The order of the variable whose domain was wiped out, or -1 if none was.
+	 */
+	private int forwardCheck(BinaryVariable current, int level) {
+		// Start a new group of removals on the trail, for undo later.
+		trail.mark();
+
+		long start = propagationStart();
+		int wipeout = -1;
+		for (BinaryArc arc : csp.futureArcs(current)) {
+			if (revise(arc)) {
+				BinaryVariable future = arc.future();
+				pruners[future.order()].set(level);
+				if (future.domain().isEmpty()) {
+					wipeout = future.order();
+					break;
+				}
+			}
+		}
+		propagationEnd(start);
+		return wipeout;
+	}
+
+	/**
+	 * Undoes the pruning made at a depth, which no longer prunes those variables.
+	 *
+	 * @param level The depth.
+	 */
+	private void undoLevel(int level) {
+		int mark = trail.popMark();
+		while (trail.size() > mark) {
+			BinaryVariable var = trail.pop();
+			pruners[var.order()].clear(level);
+			domainChanged(var);
+		}
+	}
+}
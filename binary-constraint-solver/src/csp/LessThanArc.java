@@ -0,0 +1,109 @@
+package csp;
+
+import java.io.IOException;
+
+/**
+ * Represents a binary arc of the intensional constraint current < future, or of
+ * current > future for the reverse arc. Only the bounds of the current domain matter,
+ * so the arc is revised by pruning the future values beyond the smallest (or largest)
+ * current value, without checking the rest.
+ */
+public final class LessThanArc extends BinaryArc {
+
+    // True if the constraint is current > future rather than current < future.
+    private final boolean greater;
+
+    /**
+     * Creates a new arc of the constraint current < future.
+     *
+     * @param current Current variable.
+     * @param future Future variable.
+     */
+    public LessThanArc(BinaryVariable current, BinaryVariable future) {
+        this(current, future, false);
+    }
+
+    /**
+     * Creates a new arc of the constraint current < future, or current > future.
+     *
+     * @param current Current variable.
+     * @param future Future variable.
+     * @param greater True for current > future, false for current < future.
+     */
+    private LessThanArc(BinaryVariable current, BinaryVariable future, boolean greater) {
+        super(current, future);
+        this.greater = greater;
+    }
+
+    @Override
+    protected BinaryArc createReverse() {
+        return new LessThanArc(future, current, !greater);
+    }
+
+    @Override
+    protected BinaryArc copyOnto(BinaryVariable current, BinaryVariable future) {
+        return new LessThanArc(current, future, greater);
+    }
+
+    @Override
+    void write(BinaryCSPWriter writer) throws IOException {
+        if (greater) {
+            writer.lessThan(future.order(), current.order());
+        } else {
+            writer.lessThan(current.order(), future.order());
+        }
+    }
+
+    @Override
+    public boolean allows(int currentVal, int futureVal) {
+        return greater ? currentVal > futureVal : currentVal < futureVal;
+    }
+
+    @Override
+    public boolean hasSupport(int currentVal) {
+        Domain domain = future.domain();
+        if (domain.isEmpty()) {
+            return false;
+        }
+        return greater ? domain.first() < currentVal : domain.last() > currentVal;
+    }
+
+    /**
+     * Revises the arc, pruning the future values that are not greater than the
+     * smallest current value (or not smaller than the largest one).
+     *
+     * @param solver The solver, which prunes values and counts constraint checks.
+     * @return True, if the domain of the future variable was pruned, false otherwise.
+     */
+    @Override
+    boolean revise(Solver solver) {
+        Domain currentDomain = current.domain();
+        int bound;
+        if (current.assigned()) {
+            bound = current.value();
+        } else if (currentDomain.isEmpty()) {
+            return false;
+        } else {
+            bound = greater ? currentDomain.last() : currentDomain.first();
+        }
+
+        boolean pruned = false;
+        Domain domain = future.domain();
+        if (greater) {
+            // Prune every value from the bound upwards.
+            for (int futureVal = domain.next(bound - 1); futureVal != Domain.NONE; futureVal = domain.next(futureVal)) {
+                solver.constraintChecks++;
+                solver.prune(future, futureVal);
+                pruned = true;
+            }
+        } else {
+            // Prune every value up to the bound.
+            for (int futureVal = domain.first(); futureVal != Domain.NONE && futureVal <= bound; futureVal = domain.next(futureVal)) {
+                solver.constraintChecks++;
+                solver.prune(future, futureVal);
+                pruned = true;
+            }
+        }
+        return pruned;
+    }
+}
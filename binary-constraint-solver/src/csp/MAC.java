@@ -0,0 +1,380 @@
+package csp;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+/**
+ * Maintaining Arc Consistency (MAC) solver. The search can be restarted after a number
+ * of search nodes given by a restart policy. At each restart, the refuted branches of
+ * the current path are recorded as nogoods (nld-nogoods), which are propagated in the
+ * following runs so the search never explores them again.
+ */
+public class MAC extends BranchingSolver {
+
+	// The variables whose arcs are waiting to be revised.
+	private final PropagationQueue queue;
+
+	// The restart policy, and whether the current run has reached its cutoff.
+	private RestartPolicy restartPolicy;
+	private boolean restarting;
+
+	// The search nodes at the start of the current run, and the cutoff of the run.
+	private long runStart;
+	private long cutoff;
+
+	// The nogoods recorded at restarts, and the values refuted at the root, which are
+	// removed for good once the search is back at the root.
+	private final NogoodStore nogoods;
+	private final List<int[]> refuted;
+
+	// The consistency established before search, its time budget in milliseconds (0
+	// for none), and the values it removed and time it took in nanoseconds.
+	private Preprocessing preprocessing;
+	private long preprocessingBudget;
+	private int preprocessingPruned;
+	private long preprocessingTime;
+
+	/**
+	 * Creates a new MAC solver for a given CSP.
+	 *
+	 * @param csp The constraint satisfaction problem to be solved.
+	 * @param ordering The variable ordering heuristic to be used.
+	 * @param valueOrdering The value ordering heuristic to be used.
+	 */
+	public MAC(BinaryCSP csp, VariableOrdering ordering, ValueOrdering valueOrdering) {
+        super(csp, ordering, valueOrdering);
+		queue = new PropagationQueue(csp.noVariables());
+		restartPolicy = RestartPolicy.NONE;
+		restarting = false;
+		preprocessing = Preprocessing.NONE;
+		preprocessingBudget = 0;
+		nogoods = new NogoodStore(csp.noVariables());
+		refuted = new ArrayList<>();
+	}
+
+	/**
+	 * Sets the restart policy. Restarts are not used by parallel search.
+	 *
+	 * @param restartPolicy The restart policy.
+	 */
+	public void setRestartPolicy(RestartPolicy restartPolicy) {
+		this.restartPolicy = restartPolicy;
+	}
+
+	/**
+	 * Sets the consistency established before search, stronger than the arc consistency
+	 * established at the root.
+	 *
+	 * @param preprocessing The preprocessing.
+	 * @param budget The time budget of the preprocessing in milliseconds, or 0 for none.
+	 */
+	public void setPreprocessing(Preprocessing preprocessing, long budget) {
+		this.preprocessing = preprocessing;
+		this.preprocessingBudget = budget;
+	}
+
+	public void solve() {
+		startTime = System.nanoTime();
+		if (preprocessing != Preprocessing.NONE) {
+			Preprocessor preprocessor = new Preprocessor(this);
+			boolean consistent = preprocessor.preprocess(preprocessing, preprocessingBudget);
+			preprocessingPruned = preprocessor.pruned();
+			preprocessingTime = System.nanoTime() - startTime;
+			if (!consistent) {
+				endTime = System.nanoTime();
+				return;
+			}
+		}
+		if (restartPolicy == RestartPolicy.NONE || parallel != null) {
+			if (AC3(null)) {
+				search();
+			}
+		} else {
+			solveWithRestarts();
+		}
+		endTime = System.nanoTime();
+	}
+
+	/**
+	 * Adds the preprocessing statistics of a solver for part of the CSP.
+	 *
+	 * @param solver The solver.
+	 */
+	void addPreprocessing(MAC solver) {
+		preprocessingPruned += solver.preprocessingPruned;
+		preprocessingTime += solver.preprocessingTime;
+	}
+
+	@Override
+	protected void showStatistics() {
+		super.showStatistics();
+		if (preprocessing != Preprocessing.NONE) {
+			System.out.println("Preprocessing: " + Preprocessing.toString(preprocessing));
+			System.out.println("Preprocessing Pruned Values: " + preprocessingPruned);
+			System.out.println("Preprocessing Time: " + preprocessingTime / 1_000_000.0 + " ms");
+		}
+	}
+
+	/**
+	 * Solves the CSP in runs of increasing length. Each run starts from the root with
+	 * the nogoods recorded so far, and is cut off once it has explored as many search
+	 * nodes as the restart policy allows.
+	 */
+	private void solveWithRestarts() {
+		while (true) {
+			restarting = false;
+			runStart = searchNodes;
+			cutoff = restartPolicy.cutoff(restarts);
+			if (!removeRefuted()) {
+				return;
+			}
+			if (!AC3(null)) {
+				// Rewind to the root, where a wipeout proves there is no solution.
+				undoPruning();
+				return;
+			}
+			search();
+			undoPruning();
+			if (!restarting || stopped()) {
+				return;
+			}
+			restarts++;
+		}
+	}
+
+	/**
+	 * Removes the values refuted at the root from their domains, without recording them
+	 * on the trail.
+	 *
+	 * @return False, if a domain has been wiped out, true otherwise.
+	 */
+	private boolean removeRefuted() {
+		for (int[] literal : refuted) {
+			BinaryVariable var = csp.getVar(literal[0]);
+			if (var.domain().contains(literal[1])) {
+				deleteValue(var, literal[1]);
+				if (var.domain().isEmpty()) {
+					return false;
+				}
+			}
+		}
+		refuted.clear();
+		return true;
+	}
+
+	@Override
+	protected boolean leaf() {
+		if (stopped() || restarting) {
+			return true;
+		}
+		if (csp.completeAssignment()) {
+			solutionFound();
+			return true;
+		}
+		if (searchNodes - runStart >= cutoff && restartPolicy != RestartPolicy.NONE && parallel == null) {
+			// Cut off the run, learning from the path to this node before unwinding it.
+			recordNogoods();
+			restarting = true;
+			return true;
+		}
+		return false;
+	}
+
+	@Override
+	protected void choose(ChoicePoint cp) {
+		BinaryVariable var = selectVar();
+		cp.set(var, selectVal(var), null, trail.marks());
+		if (parallel != null && parallel.shouldSplit(depth)) {
+			// Let another thread explore the right branch while this one goes left.
+			cp.forked = parallel.forkRight(this, var, cp.val);
+		}
+	}
+
+	/**
+	 * Branches left, setting the variable to be equal to the value, or right, setting
+	 * it to be not equal to the value, and maintains arc consistency. Both branches then
+	 * remove the values symmetric to the refuted values, if symmetries are broken.
+	 */
+	@Override
+	protected boolean branch(ChoicePoint cp) {
+		BinaryVariable var = cp.var;
+		depth++;
+		countNode(depth);
+		if (cp.branch++ == 0) {
+			cp.positive = true;
+			assign(var, cp.val);
+
+			// Revise all future arcs from the variable.
+			if (AC3(var)) {
+				variables.remove(var);
+				return propagateSymmetries();
+			}
+			return false;
+		}
+		cp.positive = false;
+		deleteValue(var, cp.val);
+
+		// Check for a domain whipeout.
+		return !var.domain().isEmpty() && AC3(var) && propagateSymmetries();
+	}
+
+	/**
+	 * Breaks the symmetries below the node and maintains arc consistency on the
+	 * variables whose values were removed.
+	 *
+	 * @return True, if the node is still arc consistent, false otherwise.
+	 */
+	private boolean propagateSymmetries() {
+		int broken = breakSymmetries();
+		if (broken < 0) {
+			return false;
+		}
+		for (int i = 0; i < broken; i++) {
+			if (!AC3(symmetric[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Undoes the pruning of the branch and its decision. The right branch is taken
+	 * after the left one, unless it has been forked, in which case it is waited for,
+	 * or the run has been cut off.
+	 */
+	@Override
+	protected boolean backtrack(ChoicePoint cp) {
+		BinaryVariable var = cp.var;
+		if (cp.positive) {
+			if (!variables.contains(var)) {
+				variables.add(var);
+			}
+			undoPruning(cp.mark);
+			unassign(var);
+		} else {
+			undoPruning(cp.mark);
+			restoreValue(var, cp.val);
+		}
+		depth--;
+		if (cp.forked != null) {
+			cp.forked.join();
+			return false;
+		}
+		return cp.positive && !stopped() && !restarting;
+	}
+
+	@Override
+	protected Solver newSolver(BinaryCSP csp) {
+		return withSettings(new MAC(csp, ordering, valueOrdering));
+	}
+
+	/**
+	 * Gives a new solver the restart policy, preprocessing and symmetry breaking of
+	 * this solver.
+	 *
+	 * @param solver The new solver.
+	 * @return The new solver.
+	 */
+	protected MAC withSettings(MAC solver) {
+		solver.setRestartPolicy(restartPolicy);
+		solver.setPreprocessing(preprocessing, preprocessingBudget);
+		solver.setSymmetryBreaking(symmetryBreaking);
+		return solver;
+	}
+
+	/**
+	 * Records the nld-nogoods of the current path. A negative decision x != a is only
+	 * taken once the branch x = a below the positive decisions before it has been
+	 * refuted, so those positive decisions together with x = a form a nogood. A nogood
+	 * with a single literal is a value refuted at the root.
+	 */
+	private void recordNogoods() {
+		int[] positiveVars = new int[stack.size()];
+		int[] positiveVals = new int[stack.size()];
+		int positives = 0;
+		for (int i = 0; i < stack.size(); i++) {
+			ChoicePoint cp = stack.get(i);
+			if (cp.positive) {
+				positiveVars[positives] = cp.var.order();
+				positiveVals[positives++] = cp.val;
+			} else if (positives == 0) {
+				refuted.add(new int[] {cp.var.order(), cp.val});
+			} else {
+				int[] nogoodVars = Arrays.copyOf(positiveVars, positives + 1);
+				int[] nogoodVals = Arrays.copyOf(positiveVals, positives + 1);
+				nogoodVars[positives] = cp.var.order();
+				nogoodVals[positives] = cp.val;
+				nogoods.add(nogoodVars, nogoodVals);
+			}
+		}
+	}
+
+	/**
+	 * AC3 algorithm. Revises the arcs from every variable whose domain has changed,
+	 * starting from the variable changed by branching.
+	 * 
+	 * @param changed The variable whose domain was changed by branching, or null at the root.
+	 * @return True, if the problem is arc consistent, false otherwise.
+	 */
+	protected boolean AC3(BinaryVariable changed) {
+		// Start a new group of removals on the trail, for undo later.
+		trail.mark();
+
+		long start = propagationStart();
+		boolean consistent = propagate(changed);
+		propagationEnd(start);
+		return consistent;
+	}
+
+	/**
+	 * Propagates until every arc from a changed variable has been revised, and every
+	 * table constraint on it propagated.
+	 *
+	 * @param changed The variable whose domain was changed by branching, or null at the root.
+	 * @return True, if the problem is arc consistent, false otherwise.
+	 */
+	private boolean propagate(BinaryVariable changed) {
+
+		// At the root every variable is queued, otherwise only the changed variable.
+		queue.clear();
+		if (changed == null) {
+			for (BinaryVariable var : csp.getVars()) {
+				queue.add(var);
+			}
+		} else {
+			queue.add(changed);
+		}
+
+        while(!queue.isEmpty()) {
+            BinaryVariable var = csp.getVar(queue.poll());
+
+            // Propagate the nogoods watching the changed variable, if it is now fixed.
+            if (nogoods.size() > 0 && !nogoods.propagate(csp, var, this, queue)) {
+                return false;
+            }
+
+            // Revise every arc from the changed variable.
+            for (BinaryArc arc : csp.futureArcs(var)) {
+                BinaryVariable futureVar = arc.future();
+                if (revise(arc)) {
+                    // Check for a domain whipeout.
+                    if (futureVar.domain().isEmpty()) {
+                        return false;
+                    }
+
+                    // The future variable has been pruned, so its arcs need revising.
+                    queue.add(futureVar);
+                }
+            }
+
+            // Propagate every table constraint on the changed variable.
+            for (TableConstraint table : csp.tables(var)) {
+                if (!table.propagate(this, queue)) {
+                    return false;
+                }
+            }
+        }
+		return true;
+	}
+}
@@ -0,0 +1,117 @@
+package csp;
+
+/**
+ * Maintaining Arc Consistency (MAC) solver using AC-2001. Each value of a future
+ * variable remembers its last support in the current variable of every arc. A revision
+ * only searches for a new support when the last one has been pruned, continuing from it
+ * rather than from the start of the domain. Last supports are saved on the trail, so they
+ * are restored on backtrack. Intensional arcs keep their own revision rules.
+ */
+public class MAC2001 extends MAC {
+
+	// The last support of each future value, indexed by arc. Domain.NONE if none has been found.
+	private final int[][] lastSupports;
+
+	/**
+	 * Creates a new MAC solver using AC-2001 for a given CSP.
+	 *
+	 * @param csp The constraint satisfaction problem to be solved.
+	 * @param ordering The variable ordering heuristic to be used.
+	 * @param valueOrdering The value ordering heuristic to be used.
+	 */
+	public MAC2001(BinaryCSP csp, VariableOrdering ordering, ValueOrdering valueOrdering) {
+		super(csp, ordering, valueOrdering);
+
+		// Initialise the last supports of every arc.
+		lastSupports = new int[csp.noArcs()][];
+		for (BinaryArc arc : csp.queueArcs()) {
+			// Intensional arcs have their own revision rules and keep no supports.
+			if (!(arc instanceof ExtensionalArc)) {
+				continue;
+			}
+			Domain domain = arc.future().domain();
+			int[] last = new int[Math.max(0, domain.upperBound() - domain.lowerBound() + 1)];
+			for (int i = 0; i < last.length; i++) {
+				last[i] = Domain.NONE;
+			}
+			lastSupports[arc.index()] = last;
+		}
+	}
+
+	@Override
+	protected Solver newSolver(BinaryCSP csp) {
+		return withSettings(new MAC2001(csp, ordering, valueOrdering));
+	}
+
+	/**
+	 * Revise an arc using the last supports of the future values.
+	 *
+	 * @param arc The arc to be revised.
+	 * @return True, if the domain of the future variable was pruned, false otherwise.
+	 */
+	@Override
+	protected boolean revise(BinaryArc arc) {
+		BinaryVariable future = arc.future();
+		// If the future variable is assgined, don't revise.
+		if (future.assigned()) {
+			return false;
+		}
+
+		int[] last = lastSupports[arc.index()];
+		if (last == null) {
+			return super.revise(arc);
+		}
+
+		// Find and remove all values in the future domain that are not supported.
+		int trailSize = trail.size();
+		boolean pruned = false;
+		Domain domain = future.domain();
+		for (int futureVal = domain.first(); futureVal != Domain.NONE; futureVal = domain.next(futureVal)) {
+			if (!hasSupport(arc, last, futureVal)) {
+				prune(future, futureVal);
+				pruned = true;
+			}
+		}
+
+		// Count the revision if the domain was pruned.
+		if (pruned) {
+			revised(arc, trail.size() - trailSize);
+		}
+		return pruned;
+	}
+
+	/**
+	 * Checks if a future value still has a support in the current variable of an arc.
+	 * If the last support has been pruned, the search for a new one resumes after it.
+	 *
+	 * @param arc The arc.
+	 * @param last The last supports of the future values of the arc.
+	 * @param futureVal The future value.
+	 * @return True, if the value is supported, false otherwise.
+	 */
+	private boolean hasSupport(BinaryArc arc, int[] last, int futureVal) {
+		BinaryVariable current = arc.current();
+		if (current.assigned()) {
+			constraintChecks++;
+			return arc.allows(current.value(), futureVal);
+		}
+
+		// The last support is still valid.
+		int offset = futureVal - arc.future().domain().lowerBound();
+		Domain domain = current.domain();
+		if (last[offset] != Domain.NONE && domain.contains(last[offset])) {
+			return true;
+		}
+
+		// Search for a new support after the last one.
+		for (int currentVal = domain.next(last[offset]); currentVal != Domain.NONE; currentVal = domain.next(currentVal)) {
+			constraintChecks++;
+			if (arc.allows(currentVal, futureVal)) {
+				trail.save(last, offset);
+				last[offset] = currentVal;
+				return true;
+			}
+		}
+		return false;
+	}
+}
@@ -0,0 +1,186 @@
+package csp;
+
+import java.util.Arrays;
+
+/**
+ * Stores nogoods, sets of assignments x = a that cannot all hold in a solution, and
+ * propagates them with two watched literals. A literal is entailed once its variable
+ * is fixed to its value, by assignment or because its domain has a single value. Each
+ * nogood watches two literals that are not entailed. When a watched literal becomes
+ * entailed, the nogood watches another one, or, if every other literal is entailed,
+ * removes the value of the other watched literal from its domain. Watches never need
+ * to be restored on backtrack, since backtracking only undoes entailment.
+ */
+public final class NogoodStore {
+
+    // The variables and values of the literals of each nogood.
+    private int[][] vars, vals;
+
+    // The positions of the two watched literals of each nogood.
+    private int[] watch1, watch2;
+
+    // The number of nogoods.
+    private int size;
+
+    // The nogoods watching a literal of each variable, indexed by variable order.
+    private final int[][] watchers;
+    private final int[] watcherCounts;
+
+    /**
+     * Creates a new empty store of nogoods.
+     *
+     * @param noVariables The number of variables in the CSP.
+     */
+    public NogoodStore(int noVariables) {
+        vars = new int[16][];
+        vals = new int[16][];
+        watch1 = new int[16];
+        watch2 = new int[16];
+        size = 0;
+        watchers = new int[noVariables][];
+        watcherCounts = new int[noVariables];
+        for (int i = 0; i < noVariables; i++) {
+            watchers[i] = new int[4];
+        }
+    }
+
+    /**
+     * Gets the number of nogoods.
+     *
+     * @return The number of nogoods.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Adds a nogood of at least two literals, watching its first two.
+     *
+     * @param nogoodVars The variables of the literals, by order.
+     * @param nogoodVals The values of the literals.
+     */
+    public void add(int[] nogoodVars, int[] nogoodVals) {
+        if (size == vars.length) {
+            vars = Arrays.copyOf(vars, size * 2);
+            vals = Arrays.copyOf(vals, size * 2);
+            watch1 = Arrays.copyOf(watch1, size * 2);
+            watch2 = Arrays.copyOf(watch2, size * 2);
+        }
+        vars[size] = nogoodVars;
+        vals[size] = nogoodVals;
+        watch1[size] = 0;
+        watch2[size] = 1;
+        watch(nogoodVars[0], size);
+        watch(nogoodVars[1], size);
+        size++;
+    }
+
+    /**
+     * Propagates the nogoods watching a variable that has just been fixed to a value,
+     * pruning values through the solver.
+     *
+     * @param csp The CSP.
+     * @param fixed The variable.
+     * @param solver The solver, which prunes values and counts constraint checks.
+     * @param queue The queue of variables to revise, to which pruned variables are added.
+     * @return False, if a nogood has all its literals entailed or wipes out a domain.
+     */
+    boolean propagate(BinaryCSP csp, BinaryVariable fixed, Solver solver, PropagationQueue queue) {
+        int val = fixedValue(fixed);
+        if (val == Domain.NONE) {
+            return true;
+        }
+        int var = fixed.order();
+        int[] list = watchers[var];
+        for (int i = 0; i < watcherCounts[var]; ) {
+            int nogood = list[i];
+            boolean first = vars[nogood][watch1[nogood]] == var;
+            int watched = first ? watch1[nogood] : watch2[nogood];
+            int other = first ? watch2[nogood] : watch1[nogood];
+            solver.constraintChecks++;
+
+            // The watched literal is false, so the nogood cannot be violated.
+            if (vals[nogood][watched] != val) {
+                i++;
+                continue;
+            }
+
+            // Watch another literal that is not entailed, if there is one.
+            int replacement = replacement(csp, nogood, watched, other);
+            if (replacement >= 0) {
+                if (first) {
+                    watch1[nogood] = replacement;
+                } else {
+                    watch2[nogood] = replacement;
+                }
+                watch(vars[nogood][replacement], nogood);
+                list[i] = list[--watcherCounts[var]];
+                continue;
+            }
+
+            // Every other literal is entailed, so the other watched literal must be false.
+            BinaryVariable otherVar = csp.getVar(vars[nogood][other]);
+            int otherVal = vals[nogood][other];
+            if (fixedValue(otherVar) == otherVal) {
+                return false;
+            }
+            if (!otherVar.assigned() && otherVar.domain().contains(otherVal)) {
+                solver.prune(otherVar, otherVal);
+                if (otherVar.domain().isEmpty()) {
+                    return false;
+                }
+                queue.add(otherVar);
+            }
+            i++;
+        }
+        return true;
+    }
+
+    /**
+     * Finds a literal of a nogood, other than its watched literals, that is not entailed.
+     *
+     * @param csp The CSP.
+     * @param nogood The nogood.
+     * @param watched The position of the entailed watched literal.
+     * @param other The position of the other watched literal.
+     * @return The position of the literal, or -1 if every other literal is entailed.
+     */
+    private int replacement(BinaryCSP csp, int nogood, int watched, int other) {
+        int[] nogoodVars = vars[nogood];
+        int[] nogoodVals = vals[nogood];
+        for (int k = 0; k < nogoodVars.length; k++) {
+            if (k != watched && k != other && fixedValue(csp.getVar(nogoodVars[k])) != nogoodVals[k]) {
+                return k;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * Adds a nogood to the watchers of a variable.
+     *
+     * @param var The variable, by order.
+     * @param nogood The nogood.
+     */
+    private void watch(int var, int nogood) {
+        if (watcherCounts[var] == watchers[var].length) {
+            watchers[var] = Arrays.copyOf(watchers[var], watcherCounts[var] * 2);
+        }
+        watchers[var][watcherCounts[var]++] = nogood;
+    }
+
+    /**
+     * Gets the value a variable is fixed to, by assignment or because its domain has a
+     * single value.
+     *
+     * @param var The variable.
+     * @return The value, or Domain.NONE if the variable is not fixed.
+     */
+    private static int fixedValue(BinaryVariable var) {
+        if (var.assigned()) {
+            return var.value();
+        }
+        Domain domain = var.domain();
+        return domain.size() == 1 ? domain.first() : Domain.NONE;
+    }
+}
@@ -0,0 +1,92 @@
+package csp;
+
+import java.io.IOException;
+
+/**
+ * Represents a binary arc of the intensional constraint current != future. A future
+ * value loses its last support only when the current variable can take that value
+ * alone, so the arc is revised in O(1).
+ */
+public final class NotEqualArc extends BinaryArc {
+
+    /**
+     * Creates a new not-equal arc.
+     *
+     * @param current Current variable.
+     * @param future Future variable.
+     */
+    public NotEqualArc(BinaryVariable current, BinaryVariable future) {
+        super(current, future);
+    }
+
+    @Override
+    protected BinaryArc createReverse() {
+        return new NotEqualArc(future, current);
+    }
+
+    @Override
+    protected BinaryArc copyOnto(BinaryVariable current, BinaryVariable future) {
+        return new NotEqualArc(current, future);
+    }
+
+    /**
+     * Combines the arc with another arc between the same variables. A not-equal
+     * constraint is a distance constraint forbidding the distance 0, so it merges into
+     * another not-equal or distance constraint without being compiled.
+     *
+     * @param other An arc with the same current and future variables.
+     * @return The combined arc, not linked to a reverse arc.
+     */
+    @Override
+    BinaryArc and(BinaryArc other) {
+        if (other instanceof NotEqualArc) {
+            return new NotEqualArc(current, future);
+        }
+        if (other instanceof DistanceArc) {
+            return other.and(this);
+        }
+        return super.and(other);
+    }
+
+    @Override
+    void write(BinaryCSPWriter writer) throws IOException {
+        writer.notEqual(current.order(), future.order());
+    }
+
+    @Override
+    public boolean allows(int currentVal, int futureVal) {
+        return currentVal != futureVal;
+    }
+
+    @Override
+    public boolean hasSupport(int currentVal) {
+        return supportCount(currentVal) > 0;
+    }
+
+    @Override
+    public int supportCount(int currentVal) {
+        Domain domain = future.domain();
+        return domain.contains(currentVal) ? domain.size() - 1 : domain.size();
+    }
+
+    /**
+     * Revises the arc, pruning the value of the current variable from the future
+     * domain once the current variable can only take that value.
+     *
+     * @param solver The solver, which prunes values and counts constraint checks.
+     * @return True, if the domain of the future variable was pruned, false otherwise.
+     */
+    @Override
+    boolean revise(Solver solver) {
+        int val = currentSingleton();
+        if (val == Domain.NONE) {
+            return false;
+        }
+        solver.constraintChecks++;
+        if (!future.domain().contains(val)) {
+            return false;
+        }
+        solver.prune(future, val);
+        return true;
+    }
+}
@@ -0,0 +1,173 @@
+package csp;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.concurrent.ForkJoinWorkerThread;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Parallel tree search on a fork-join pool. Near the root of the search tree, the
+ * right branch of each node becomes a task that idle threads can steal. Each task
+ * explores its branch with its own solver on a copy of the CSP taken at the node, so
+ * tasks share no domain state. The statistics of every task are added up, and the
+ * search nodes are also counted per thread.
+ */
+public final class ParallelSearch {
+
+    // Right branches are only forked within this many decisions of the root.
+    private static final int SPLIT_DEPTH = 16;
+
+    // Right branches are only forked while fewer tasks than this are waiting to be stolen.
+    private static final int MAX_SURPLUS = 2;
+
+    // The pool of worker threads.
+    private final ForkJoinPool pool;
+
+    // The number of worker threads.
+    private final int threads;
+
+    // The statistics of every finished solver.
+    private final LongAdder searchNodes, arcRevisions, constraintChecks;
+
+    // The search nodes counted by each worker thread, indexed by pool index.
+    private final Map<Integer, LongAdder> threadNodes;
+
+    // The solver that found the first solution, or null if none has been found.
+    private volatile Solver winner;
+
+    // The detailed statistics of the whole search, into which those of every solver
+    // are merged once it has finished, or null if they are not recorded.
+    private SearchStatistics statistics;
+
+    /**
+     * Creates a new parallel search.
+     *
+     * @param threads The number of worker threads.
+     */
+    public ParallelSearch(int threads) {
+        this.threads = threads;
+        this.pool = new ForkJoinPool(threads);
+        this.searchNodes = new LongAdder();
+        this.arcRevisions = new LongAdder();
+        this.constraintChecks = new LongAdder();
+        this.threadNodes = new ConcurrentSkipListMap<Integer, LongAdder>();
+    }
+
+    /**
+     * Solves the CSP of a solver in parallel. Once every thread has finished, the root
+     * solver holds the first solution found, if any, and the statistics of every thread.
+     *
+     * @param root The solver for the whole CSP.
+     * @return The first solution found, indexed by variable order, or null if there is no solution.
+     */
+    public int[] solve(BranchingSolver root) {
+        root.parallel = this;
+
+        // The root solver records its own statistics while tasks are being merged.
+        statistics = root.statistics;
+        if (statistics != null) {
+            root.statistics = new SearchStatistics(root.csp.noVariables());
+        }
+        try {
+            pool.invoke(new RecursiveAction() {
+                @Override
+                protected void compute() {
+                    root.solve();
+                    finished(root);
+                }
+            });
+        } finally {
+            pool.shutdown();
+        }
+
+        // Report the totals of every solver through the root solver.
+        if (winner != null) {
+            root.solution = winner.solution;
+        }
+        root.searchNodes = searchNodes.longValue();
+        root.arcRevisions = arcRevisions.longValue();
+        root.constraintChecks = constraintChecks.longValue();
+        if (statistics != null) {
+            root.statistics = statistics;
+        }
+        return root.solution;
+    }
+
+    /**
+     * Gets the number of worker threads.
+     *
+     * @return The number of worker threads.
+     */
+    public int threads() {
+        return threads;
+    }
+
+    /**
+     * Gets the search nodes counted by each worker thread.
+     *
+     * @return The search nodes, indexed by the pool index of the thread.
+     */
+    public Map<Integer, LongAdder> threadNodes() {
+        return threadNodes;
+    }
+
+    /**
+     * Checks if the right branch of a node should be forked as a task, which is the
+     * case near the root while few tasks are waiting to be stolen.
+     *
+     * @param depth The number of decisions from the root to the node.
+     * @return True, if the right branch should be forked.
+     */
+    boolean shouldSplit(int depth) {
+        return depth < SPLIT_DEPTH && ForkJoinTask.getSurplusQueuedTaskCount() < MAX_SURPLUS;
+    }
+
+    /**
+     * Forks the right branch of a node as a task, explored by a new solver on a copy
+     * of the CSP taken now, before the left branch changes it.
+     *
+     * @param parent The solver at the node.
+     * @param var The variable branched on.
+     * @param val The value branched on.
+     * @return The forked task.
+     */
+    ForkJoinTask<?> forkRight(BranchingSolver parent, BinaryVariable var, int val) {
+        BranchingSolver child = parent.spawn(parent.csp.copy());
+        int order = var.order();
+        return new RecursiveAction() {
+            @Override
+            protected void compute() {
+                child.branchRight(child.csp.getVar(order), val);
+                finished(child);
+            }
+        }.fork();
+    }
+
+    /**
+     * Records that a solver has found the first solution.
+     *
+     * @param solver The solver.
+     */
+    void solutionFound(Solver solver) {
+        winner = solver;
+    }
+
+    /**
+     * Adds the statistics of a solver that has finished its part of the search.
+     *
+     * @param solver The solver.
+     */
+    private void finished(Solver solver) {
+        searchNodes.add(solver.searchNodes);
+        arcRevisions.add(solver.arcRevisions);
+        constraintChecks.add(solver.constraintChecks);
+        int index = ((ForkJoinWorkerThread) Thread.currentThread()).getPoolIndex();
+        threadNodes.computeIfAbsent(index, i -> new LongAdder()).add(solver.searchNodes);
+        if (statistics != null) {
+            statistics.merge(solver);
+        }
+    }
+}
@@ -0,0 +1,170 @@
+package csp;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Runs several solver configurations on copies of the same CSP concurrently, one
+ * thread per configuration. The first solver to find a solution wins and cancels the
+ * others through a shared cancellation flag. A solver that exhausts its search proves
+ * there is no solution, so it wins and cancels the others too.
+ */
+public final class Portfolio {
+
+    /**
+     * A solver configuration in the portfolio.
+     */
+    private static final class Configuration {
+        private final Algorithm algorithm;
+        private final VariableOrdering ordering;
+        private final ValueOrdering valueOrdering;
+        private final long seed;
+        private final RestartPolicy restartPolicy;
+
+        private Configuration(Algorithm algorithm, VariableOrdering ordering, ValueOrdering valueOrdering, long seed,
+                RestartPolicy restartPolicy) {
+            this.algorithm = algorithm;
+            this.ordering = ordering;
+            this.valueOrdering = valueOrdering;
+            this.seed = seed;
+            this.restartPolicy = restartPolicy;
+        }
+    }
+
+    // The CSP to be solved.
+    private final BinaryCSP csp;
+
+    // The configurations to run.
+    private final List<Configuration> configurations;
+
+    // The solver that found a solution or proved there is none, or null if not solved yet.
+    private Solver winner;
+
+    /**
+     * Creates a new empty portfolio for a given CSP.
+     *
+     * @param csp The constraint satisfaction problem to be solved.
+     */
+    public Portfolio(BinaryCSP csp) {
+        this.csp = csp;
+        this.configurations = new ArrayList<Configuration>();
+        this.winner = null;
+    }
+
+    /**
+     * Creates the default portfolio for a given CSP, mixing propagation strengths and
+     * heuristics: MAC2001 with dom/wdeg, FC with smallest domain first, MAC with
+     * dom/ddeg and min-conflicts, MAC with smallest domain first and random values, and
+     * MAC with dom/wdeg, random values and Luby restarts.
+     *
+     * @param csp The constraint satisfaction problem to be solved.
+     * @return The portfolio.
+     */
+    public static Portfolio defaultPortfolio(BinaryCSP csp) {
+        Portfolio portfolio = new Portfolio(csp);
+        portfolio.add(Algorithm.MAC2001, VariableOrdering.DOM_WDEG, ValueOrdering.ASCENDING, 0);
+        portfolio.add(Algorithm.FC, VariableOrdering.SMALLEST_DOMAIN_FIRST, ValueOrdering.ASCENDING, 0);
+        portfolio.add(Algorithm.MAC, VariableOrdering.DOM_DDEG, ValueOrdering.MIN_CONFLICTS, 0);
+        portfolio.add(Algorithm.MAC, VariableOrdering.SMALLEST_DOMAIN_FIRST, ValueOrdering.RANDOM, 1);
+        portfolio.add(Algorithm.MAC, VariableOrdering.DOM_WDEG, ValueOrdering.RANDOM, 2, RestartPolicy.LUBY);
+        return portfolio;
+    }
+
+    /**
+     * Adds a configuration to the portfolio.
+     *
+     * @param algorithm The algorithm to be used.
+     * @param ordering The variable ordering heuristic to be used.
+     * @param valueOrdering The value ordering heuristic to be used.
+     * @param seed The seed of the random value ordering.
+     */
+    public void add(Algorithm algorithm, VariableOrdering ordering, ValueOrdering valueOrdering, long seed) {
+        add(algorithm, ordering, valueOrdering, seed, RestartPolicy.NONE);
+    }
+
+    /**
+     * Adds a configuration that restarts its search, to the portfolio.
+     *
+     * @param algorithm The algorithm to be used, MAC or MAC2001 if it restarts.
+     * @param ordering The variable ordering heuristic to be used.
+     * @param valueOrdering The value ordering heuristic to be used.
+     * @param seed The seed of the random value ordering.
+     * @param restartPolicy The restart policy.
+     * @throws IllegalArgumentException If the algorithm cannot restart.
+     */
+    public void add(Algorithm algorithm, VariableOrdering ordering, ValueOrdering valueOrdering, long seed,
+            RestartPolicy restartPolicy) {
+        if (restartPolicy != RestartPolicy.NONE && algorithm != Algorithm.MAC && algorithm != Algorithm.MAC2001) {
+            throw new IllegalArgumentException("Restarts are only supported by MAC and MAC2001.");
+        }
+        configurations.add(new Configuration(algorithm, ordering, valueOrdering, seed, restartPolicy));
+    }
+
+    /**
+     * Solves the CSP with every configuration concurrently, returning once one of them
+     * has found a solution or proved that there is none.
+     *
+     * @return The solution, indexed by variable order, or null if there is no solution.
+     */
+    public int[] solve() {
+        AtomicBoolean stop = new AtomicBoolean(false);
+        AtomicLong solutions = new AtomicLong(0);
+        AtomicReference<Solver> first = new AtomicReference<Solver>();
+        List<Solver> solvers = new ArrayList<Solver>();
+        for (Configuration configuration : configurations) {
+            Solver solver = configuration.algorithm.create(csp.copy(), configuration.ordering, configuration.valueOrdering);
+            solver.setSeed(configuration.seed);
+            if (configuration.restartPolicy != RestartPolicy.NONE) {
+                ((MAC) solver).setRestartPolicy(configuration.restartPolicy);
+            }
+            solver.setStop(stop);
+            // Only the first solution found by any solver is recorded.
+            solver.setSolutionCounter(solutions);
+            solvers.add(solver);
+        }
+
+        ExecutorService pool = Executors.newFixedThreadPool(solvers.size());
+        try {
+            List<Future<?>> futures = new ArrayList<Future<?>>();
+            for (Solver solver : solvers) {
+                futures.add(pool.submit(() -> {
+                    solver.solve();
+                    // The solver wins if it found the solution or exhausted its search before being cancelled.
+                    if (solver.solution() != null || !stop.getAndSet(true)) {
+                        first.compareAndSet(null, solver);
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } catch (InterruptedException e) {
+            stop.set(true);
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException e) {
+            stop.set(true);
+            System.out.println(e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+
+        winner = first.get();
+        return winner == null ? null : winner.solution();
+    }
+
+    /**
+     * Gets the solver that found a solution or proved that there is none.
+     *
+     * @return The winning solver, or null if the portfolio has not been solved.
+     */
+    public Solver winner() {
+        return winner;
+    }
+}
@@ -0,0 +1,55 @@
+package csp;
+
+/**
+ * Represents a binary arc of an intensional constraint given by an arbitrary
+ * predicate on the pair of values. The predicate is evaluated for each check, so the
+ * arc is revised by checking every future value, but no tuples are stored.
+ */
+public final class PredicateArc extends BinaryArc {
+
+    /**
+     * A predicate on a pair of values.
+     */
+    @FunctionalInterface
+    public interface Relation {
+
+        /**
+         * Checks if a pair of values is allowed.
+         *
+         * @param currentVal Value of the current variable.
+         * @param futureVal Value of the future variable.
+         * @return True if the pair is allowed, false otherwise.
+         */
+        boolean test(int currentVal, int futureVal);
+    }
+
+    // The predicate deciding the allowed pairs.
+    private final Relation relation;
+
+    /**
+     * Creates a new predicate arc.
+     *
+     * @param current Current variable.
+     * @param future Future variable.
+     * @param relation The predicate deciding the allowed pairs.
+     */
+    public PredicateArc(BinaryVariable current, BinaryVariable future, Relation relation) {
+        super(current, future);
+        this.relation = relation;
+    }
+
+    @Override
+    protected BinaryArc createReverse() {
+        return new PredicateArc(future, current, (futureVal, currentVal) -> relation.test(currentVal, futureVal));
+    }
+
+    @Override
+    protected BinaryArc copyOnto(BinaryVariable current, BinaryVariable future) {
+        return new PredicateArc(current, future, relation);
+    }
+
+    @Override
+    public boolean allows(int currentVal, int futureVal) {
+        return relation.test(currentVal, futureVal);
+    }
+}
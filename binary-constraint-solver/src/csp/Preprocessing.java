@@ -0,0 +1,45 @@
+package csp;
+
+public enum Preprocessing {
+    NONE,
+    SAC,
+    RPC;
+
+	/**
+	 * Returns the preprocessing corresponding to the given type.
+	 * 
+	 * @param type The type of preprocessing.
+	 * @return The preprocessing.
+	 */
+	public static Preprocessing getPreprocessing(int type) {
+        switch (type) {
+            case 0:
+                return Preprocessing.NONE;
+            case 1:
+                return Preprocessing.SAC;
+            case 2:
+                return Preprocessing.RPC;
+            default:
+                throw new IllegalArgumentException("Invalid preprocessing type.");
+        }
+    }
+
+    /**
+     * Returns a string describing the name of the given preprocessing.
+     * 
+     * @param preprocessing The preprocessing.
+     * @return The name of the preprocessing.
+     */
+    public static String toString(Preprocessing preprocessing) {
+        switch (preprocessing) {
+            case NONE:
+                return "None";
+            case SAC:
+                return "Singleton Arc Consistency";
+            case RPC:
+                return "Restricted Path Consistency";
+            default:
+                throw new IllegalArgumentException("Invalid preprocessing type.");
+        }
+    }
+}
@@ -0,0 +1,193 @@
+package csp;
+
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Tightens the domains of a CSP before search with a consistency stronger than arc
+ * consistency, using the AC3 propagation of a MAC solver.
+ *
+ * Singleton arc consistency (SAC-1) removes each value whose assignment wipes out a
+ * domain once propagated. Restricted path consistency (RPC) removes each value whose
+ * only support on a constraint cannot be extended to a third variable constrained
+ * with both. Each sweep establishes arc consistency, checks every value against it and
+ * then removes the values found inconsistent for good. Sweeps are repeated until no
+ * value is removed or the time budget runs out, so the result is sound even if it is
+ * cut short.
+ */
+public final class Preprocessor {
+
+    // The solver whose propagation is used.
+    private final MAC solver;
+
+    // The CSP being preprocessed.
+    private final BinaryCSP csp;
+
+    // The time after which no more values are checked, in nanoseconds.
+    private long deadline;
+
+    // The values found inconsistent in the current sweep, as variable orders and values.
+    private final List<int[]> inconsistent;
+
+    // The number of values removed.
+    private int pruned;
+
+    /**
+     * Creates a new preprocessor.
+     *
+     * @param solver The solver whose propagation is used.
+     */
+    public Preprocessor(MAC solver) {
+        this.solver = solver;
+        this.csp = solver.csp;
+        this.inconsistent = new ArrayList<>();
+        this.pruned = 0;
+    }
+
+    /**
+     * Gets the number of values removed by the preprocessing.
+     *
+     * @return The number of values removed.
+     */
+    public int pruned() {
+        return pruned;
+    }
+
+    /**
+     * Tightens the domains of the CSP.
+     *
+     * @param preprocessing The consistency to establish.
+     * @param budget The time budget in milliseconds, or 0 for no budget.
+     * @return False, if the CSP has been found to have no solution, true otherwise.
+     */
+    public boolean preprocess(Preprocessing preprocessing, long budget) {
+        deadline = budget > 0 ? System.nanoTime() + budget * 1_000_000 : Long.MAX_VALUE;
+        do {
+            inconsistent.clear();
+
+            // Check every value against arc consistent domains.
+            boolean consistent = solver.AC3(null);
+            if (consistent) {
+                if (preprocessing == Preprocessing.SAC) {
+                    singletonSweep();
+                } else if (preprocessing == Preprocessing.RPC) {
+                    pathSweep();
+                }
+            }
+            solver.undoPruning();
+            if (!consistent) {
+                return false;
+            }
+
+            // Remove the inconsistent values from the root domains, which the trail does not restore.
+            for (int[] literal : inconsistent) {
+                BinaryVariable var = csp.getVar(literal[0]);
+                solver.deleteValue(var, literal[1]);
+                pruned++;
+                if (var.domain().isEmpty()) {
+                    return false;
+                }
+            }
+        } while (!inconsistent.isEmpty() && System.nanoTime() < deadline);
+        return true;
+    }
+
+    /**
+     * Checks each value by assigning it and propagating. If the propagation wipes out a
+     * domain, the value is inconsistent.
+     */
+    private void singletonSweep() {
+        for (BinaryVariable var : csp.getVars()) {
+            if (var.assigned() || var.domain().size() == 1) {
+                continue;
+            }
+            Domain domain = var.domain();
+            for (int val = domain.first(); val != Domain.NONE; val = domain.next(val)) {
+                if (System.nanoTime() >= deadline) {
+                    return;
+                }
+                solver.assign(var, val);
+                if (!solver.AC3(var)) {
+                    inconsistent.add(new int[] {var.order(), val});
+                }
+                solver.undoPruning();
+                solver.unassign(var);
+            }
+        }
+    }
+
+    /**
+     * Checks each value with a single support on a constraint. If no value of a third
+     * variable constrained with both is compatible with the value and its support, the
+     * value is inconsistent.
+     */
+    private void pathSweep() {
+        for (BinaryVariable var : csp.getVars()) {
+            if (var.assigned()) {
+                continue;
+            }
+            Domain domain = var.domain();
+            for (int val = domain.first(); val != Domain.NONE; val = domain.next(val)) {
+                if (System.nanoTime() >= deadline) {
+                    return;
+                }
+                if (!pathConsistent(var, val)) {
+                    inconsistent.add(new int[] {var.order(), val});
+                }
+            }
+        }
+    }
+
+    /**
+     * Checks if a value is restricted path consistent.
+     *
+     * @param var The variable.
+     * @param val The value.
+     * @return False, if the only support of the value on a constraint cannot be
+     *         extended to a third variable, true otherwise.
+     */
+    private boolean pathConsistent(BinaryVariable var, int val) {
+        for (BinaryArc arc : csp.futureArcs(var)) {
+            BinaryVariable other = arc.future();
+            if (arc.supportCount(val) != 1) {
+                continue;
+            }
+            int support = onlySupport(arc, val);
+
+            // Look for a value of each shared neighbour compatible with both.
+            for (BinaryArc third : csp.futureArcs(var)) {
+                BinaryArc otherThird = csp.getArc(other, third.future());
+                if (otherThird == null) {
+                    continue;
+                }
+                boolean extended = false;
+                Domain domain = third.future().domain();
+                for (int thirdVal = domain.first(); thirdVal != Domain.NONE && !extended; thirdVal = domain.next(thirdVal)) {
+                    solver.constraintChecks++;
+                    extended = third.allows(val, thirdVal) && otherThird.allows(support, thirdVal);
+                }
+                if (!extended) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Finds the support of a value of the current variable of an arc that has exactly one.
+     *
+     * @param arc The arc.
+     * @param val The value of the current variable.
+     * @return The value of the future variable supporting it.
+     */
+    private static int onlySupport(BinaryArc arc, int val) {
+        Domain domain = arc.future().domain();
+        for (int futureVal = domain.first(); futureVal != Domain.NONE; futureVal = domain.next(futureVal)) {
+            if (arc.allows(val, futureVal)) {
+                return futureVal;
+            }
+        }
+        return Domain.NONE;
+    }
+}
@@ -0,0 +1,74 @@
+package csp;
+
+/**
+ * Queue of variables whose domains have changed and whose arcs still need to be
+ * revised. Each variable is held at most once, tracked with an in-queue flag per
+ * variable, so the queue never needs more slots than there are variables.
+ */
+public final class PropagationQueue {
+
+    // Circular buffer of variable orders.
+    private final int[] queue;
+
+    // Whether each variable is in the queue.
+    private final boolean[] inQueue;
+
+    // Position of the head of the queue and number of queued variables.
+    private int head, size;
+
+    /**
+     * Creates a new empty propagation queue.
+     *
+     * @param noVariables The number of variables in the problem.
+     */
+    public PropagationQueue(int noVariables) {
+        queue = new int[noVariables];
+        inQueue = new boolean[noVariables];
+        head = 0;
+        size = 0;
+    }
+
+    /**
+     * Checks if the queue is empty.
+     *
+     * @return True if the queue is empty, false otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Adds a variable to the queue, unless it is already queued.
+     *
+     * @param var The variable whose domain has changed.
+     */
+    public void add(BinaryVariable var) {
+        int order = var.order();
+        if (!inQueue[order]) {
+            inQueue[order] = true;
+            queue[(head + size++) % queue.length] = order;
+        }
+    }
+
+    /**
+     * Removes the variable at the head of the queue.
+     *
+     * @return The order of the removed variable.
+     */
+    public int poll() {
+        int order = queue[head];
+        inQueue[order] = false;
+        head = (head + 1) % queue.length;
+        size--;
+        return order;
+    }
+
+    /**
+     * Removes every variable from the queue.
+     */
+    public void clear() {
+        while (size > 0) {
+            poll();
+        }
+    }
+}
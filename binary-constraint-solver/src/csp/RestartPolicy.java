@@ -0,0 +1,91 @@
+package csp;
+
+public enum RestartPolicy {
+    NONE,
+    LUBY,
+    GEOMETRIC;
+
+    // The number of search nodes in the shortest run between restarts.
+    private static final long UNIT = 100;
+
+    // The factor by which the geometric cutoff grows after each restart.
+    private static final double GROWTH = 1.5;
+
+	/**
+	 * Returns the restart policy corresponding to the given type.
+	 *
+	 * @param type The type of policy.
+	 * @return The restart policy.
+	 */
+	public static RestartPolicy getPolicy(int type) {
+        switch (type) {
+            case 0:
+                return RestartPolicy.NONE;
+            case 1:
+                return RestartPolicy.LUBY;
+            case 2:
+                return RestartPolicy.GEOMETRIC;
+            default:
+                throw new IllegalArgumentException("Invalid restart policy type.");
+        }
+    }
+
+    /**
+     * Returns a string describing the name of the given policy.
+     *
+     * @param policy The policy.
+     * @return The name of the policy.
+     */
+    public static String toString(RestartPolicy policy) {
+        switch (policy) {
+            case NONE:
+                return "None";
+            case LUBY:
+                return "Luby";
+            case GEOMETRIC:
+                return "Geometric";
+            default:
+                throw new IllegalArgumentException("Invalid restart policy type.");
+        }
+    }
+
+    /**
+     * Gets the number of search nodes after which a run is cut off and the search restarts.
+     *
+     * @param restarts The number of restarts so far.
+     * @return The cutoff, or Long.MAX_VALUE if the search never restarts.
+     */
+    public long cutoff(long restarts) {
+        switch (this) {
+            case LUBY:
+                return UNIT * luby(restarts + 1);
+            case GEOMETRIC:
+                return (long) (UNIT * Math.pow(GROWTH, restarts));
+            default:
+                return Long.MAX_VALUE;
+        }
+    }
+
+    /**
+     * Gets the i-th term of the Luby sequence 1, 1, 2, 1, 1, 2, 4, 1, 1, 2, ...
+     *
+     * @param i The index of the term, from 1.
+     * @return The term.
+     */
+    private static long luby(long i) {
+        // Find the smallest k such that i <= 2^k - 1.
+        int k = 1;
+        while ((1L << k) - 1 < i) {
+            k++;
+        }
+        // The sequence ends each block of length 2^k - 1 with 2^(k - 1), and otherwise repeats.
+        while (i != (1L << k) - 1) {
+            i -= (1L << (k - 1)) - 1;
+            k = 1;
+            while ((1L << k) - 1 < i) {
+                k++;
+            }
+        }
+        return 1L << (k - 1);
+    }
+}
@@ -0,0 +1,76 @@
+package csp;
+
+import java.util.Arrays;
+
+/**
+ * The choice points from the root of the search to the current node, replacing the
+ * call stack of a recursive search. Choice points are reused once popped, so the search
+ * does not allocate one per node.
+ */
+public final class SearchStack {
+
+    // The choice points, of which the first size are on the stack.
+    private ChoicePoint[] points;
+    private int size;
+
+    /**
+     * Creates a new empty stack.
+     */
+    public SearchStack() {
+        points = new ChoicePoint[16];
+        size = 0;
+    }
+
+    /**
+     * Gets the number of choice points on the stack.
+     *
+     * @return The number of choice points.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets a choice point, counting from the root.
+     *
+     * @param i The index of the choice point.
+     * @return The choice point.
+     */
+    public ChoicePoint get(int i) {
+        return points[i];
+    }
+
+    /**
+     * Gets the latest choice point.
+     *
+     * @return The choice point.
+     */
+    public ChoicePoint peek() {
+        return points[size - 1];
+    }
+
+    /**
+     * Pushes a choice point, to be set by the caller.
+     *
+     * @return The choice point.
+     */
+    public ChoicePoint push() {
+        if (size == points.length) {
+            points = Arrays.copyOf(points, size * 2);
+        }
+        if (points[size] == null) {
+            points[size] = new ChoicePoint();
+        }
+        return points[size++];
+    }
+
+    /**
+     * Pops the latest choice point.
+     */
+    public void pop() {
+        ChoicePoint point = points[--size];
+        // Let go of the values and the task, which are not reused.
+        point.vals = null;
+        point.forked = null;
+    }
+}
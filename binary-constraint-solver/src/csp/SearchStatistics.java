@@ -0,0 +1,315 @@
+package csp;
+
+import java.io.IOException;
+import java.io.PrintWriter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ScheduledExecutorService;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Detailed statistics of a search, recorded by a solver alongside its counters when
+ * enabled: the search nodes at each depth, the revisions and pruned values of each
+ * arc, the wipeouts of each variable, the time spent propagating and the peak size of
+ * the trail. The counters of the solver can also be sampled periodically during the
+ * search. The statistics are exported as JSON or CSV once the search has finished.
+ */
+public final class SearchStatistics {
+
+    // The counters of each sample, starting with its time in milliseconds.
+    private static final String[] SAMPLE_COLUMNS = {"time", "searchNodes", "arcRevisions", "constraintChecks",
+            "solutions", "depth", "trail"};
+
+    // The search nodes at each depth, from depth 1.
+    private long[] depthNodes;
+
+    // The revisions that pruned values and the values pruned by each arc, keyed by the
+    // orders of its current and future variables.
+    private final Map<Long, long[]> arcPrunes;
+
+    // The wipeouts of each variable, indexed by order.
+    private final long[] wipeouts;
+
+    // The time spent propagating, in nanoseconds.
+    private long propagationTime;
+
+    // The largest number of values recorded on the trail at once.
+    private int peakTrail;
+
+    // The samples taken during the search, and the thread taking them.
+    private final List<long[]> samples;
+    private ScheduledExecutorService sampler;
+
+    /**
+     * Creates new empty statistics.
+     *
+     * @param noVariables The number of variables in the CSP.
+     */
+    public SearchStatistics(int noVariables) {
+        depthNodes = new long[16];
+        arcPrunes = new HashMap<>();
+        wipeouts = new long[noVariables];
+        propagationTime = 0;
+        peakTrail = 0;
+        samples = new ArrayList<>();
+    }
+
+    /**
+     * Records a search node.
+     *
+     * @param depth The number of decisions from the root to the node.
+     */
+    void node(int depth) {
+        if (depth >= depthNodes.length) {
+            depthNodes = Arrays.copyOf(depthNodes, Math.max(depth + 1, depthNodes.length * 2));
+        }
+        depthNodes[depth]++;
+    }
+
+    /**
+     * Records a revision of an arc that pruned values.
+     *
+     * @param arc The arc.
+     * @param removed The number of values pruned.
+     */
+    void revised(BinaryArc arc, int removed) {
+        long[] counts = arcPrunes.computeIfAbsent(key(arc.current().order(), arc.future().order()), k -> new long[2]);
+        counts[0]++;
+        counts[1] += removed;
+        if (arc.future().domain().isEmpty()) {
+            wipeouts[arc.future().order()]++;
+        }
+    }
+
+    /**
+     * Records time spent propagating.
+     *
+     * @param time The time, in nanoseconds.
+     */
+    void propagated(long time) {
+        propagationTime += time;
+    }
+
+    /**
+     * Adds the statistics of a solver that explored part of the search, such as a task
+     * of parallel search.
+     *
+     * @param solver The solver.
+     */
+    synchronized void merge(Solver solver) {
+        SearchStatistics other = solver.statistics;
+        for (int depth = other.depthNodes.length - 1; depth > 0; depth--) {
+            if (other.depthNodes[depth] > 0) {
+                if (depth >= depthNodes.length) {
+                    depthNodes = Arrays.copyOf(depthNodes, depth + 1);
+                }
+                depthNodes[depth] += other.depthNodes[depth];
+            }
+        }
+        for (Map.Entry<Long, long[]> entry : other.arcPrunes.entrySet()) {
+            long[] counts = arcPrunes.computeIfAbsent(entry.getKey(), k -> new long[2]);
+            counts[0] += entry.getValue()[0];
+            counts[1] += entry.getValue()[1];
+        }
+        for (int i = 0; i < wipeouts.length; i++) {
+            wipeouts[i] += other.wipeouts[i];
+        }
+        propagationTime += other.propagationTime;
+        peakTrail = Math.max(peakTrail, Math.max(other.peakTrail, solver.trail.peakSize()));
+    }
+
+    /**
+     * Starts sampling the counters of a solver periodically on a background thread.
+     * The counters are read while the solver is running, so each sample is approximate.
+     *
+     * @param solver The solver.
+     * @param interval The time between samples, in milliseconds.
+     */
+    public void startSampling(Solver solver, long interval) {
+        long start = System.nanoTime();
+        sampler = Executors.newSingleThreadScheduledExecutor(runnable -> {
+            Thread thread = new Thread(runnable, "statistics-sampler");
+            thread.setDaemon(true);
+            return thread;
+        });
+        sampler.scheduleAtFixedRate(() -> {
+            long[] sample = {(System.nanoTime() - start) / 1_000_000, solver.searchNodes, solver.arcRevisions,
+                    solver.constraintChecks, solver.solutionCount(), solver.depth, solver.trail.size()};
+            synchronized (samples) {
+                samples.add(sample);
+            }
+        }, interval, interval, TimeUnit.MILLISECONDS);
+    }
+
+    /**
+     * Stops sampling, if started.
+     */
+    public void stopSampling() {
+        if (sampler != null) {
+            sampler.shutdownNow();
+            sampler = null;
+        }
+    }
+
+    /**
+     * Writes the statistics and the counters of a solver that has finished its search,
+     * as CSV if the file name ends with .csv and as JSON otherwise.
+     *
+     * @param solver The solver.
+     * @param file File name.
+     * @throws IOException If an I/O error occurs.
+     */
+    public void write(Solver solver, String file) throws IOException {
+        peakTrail = Math.max(peakTrail, solver.trail.peakSize());
+        try (PrintWriter out = new PrintWriter(file)) {
+            if (file.endsWith(".csv")) {
+                writeCsv(solver, out);
+            } else {
+                writeJson(solver, out);
+            }
+            if (out.checkError()) {
+                throw new IOException("Failed to write " + file);
+            }
+        }
+    }
+
+    /**
+     * Writes the statistics as one JSON object.
+     *
+     * @param solver The solver.
+     * @param out The output.
+     */
+    private void writeJson(Solver solver, PrintWriter out) {
+        out.println("{");
+        out.println("  \"solver\": \"" + solver.getClass().getSimpleName() + "\",");
+        out.println("  \"variableOrdering\": \"" + VariableOrdering.toString(solver.ordering) + "\",");
+        out.println("  \"valueOrdering\": \"" + ValueOrdering.toString(solver.valueOrdering) + "\",");
+        for (String[] counter : counters(solver)) {
+            out.println("  \"" + counter[0] + "\": " + counter[1] + ",");
+        }
+
+        out.print("  \"depthNodes\": [");
+        for (int depth = 1; depth <= maxDepth(); depth++) {
+            out.print((depth > 1 ? ", " : "") + depthNodes[depth]);
+        }
+        out.println("],");
+
+        out.println("  \"arcs\": [");
+        int i = 0;
+        for (Map.Entry<Long, long[]> entry : new TreeMap<>(arcPrunes).entrySet()) {
+            out.print("    {\"current\": " + (entry.getKey() >>> 32) + ", \"future\": " + (entry.getKey() & 0xFFFFFFFFL)
+                    + ", \"revisions\": " + entry.getValue()[0] + ", \"prunes\": " + entry.getValue()[1] + "}");
+            out.println(++i < arcPrunes.size() ? "," : "");
+        }
+        out.println("  ],");
+
+        out.print("  \"wipeouts\": [");
+        for (int var = 0; var < wipeouts.length; var++) {
+            out.print((var > 0 ? ", " : "") + wipeouts[var]);
+        }
+        out.println("],");
+
+        out.println("  \"samples\": [");
+        synchronized (samples) {
+            for (int j = 0; j < samples.size(); j++) {
+                long[] sample = samples.get(j);
+                out.print("    {");
+                for (int k = 0; k < SAMPLE_COLUMNS.length; k++) {
+                    out.print((k > 0 ? ", " : "") + "\"" + SAMPLE_COLUMNS[k] + "\": " + sample[k]);
+                }
+                out.println(j + 1 < samples.size() ? "}," : "}");
+            }
+        }
+        out.println("  ]");
+        out.println("}");
+    }
+
+    /**
+     * Writes the statistics as CSV, one value per row with the columns metric, key and value.
+     *
+     * @param solver The solver.
+     * @param out The output.
+     */
+    private void writeCsv(Solver solver, PrintWriter out) {
+        out.println("metric,key,value");
+        out.println("solver,," + solver.getClass().getSimpleName());
+        out.println("variableOrdering,," + VariableOrdering.toString(solver.ordering));
+        out.println("valueOrdering,," + ValueOrdering.toString(solver.valueOrdering));
+        for (String[] counter : counters(solver)) {
+            out.println(counter[0] + ",," + counter[1]);
+        }
+        for (int depth = 1; depth <= maxDepth(); depth++) {
+            out.println("depthNodes," + depth + "," + depthNodes[depth]);
+        }
+        for (Map.Entry<Long, long[]> entry : new TreeMap<>(arcPrunes).entrySet()) {
+            String arc = (entry.getKey() >>> 32) + "-" + (entry.getKey() & 0xFFFFFFFFL);
+            out.println("arcRevisions," + arc + "," + entry.getValue()[0]);
+            out.println("arcPrunes," + arc + "," + entry.getValue()[1]);
+        }
+        for (int var = 0; var < wipeouts.length; var++) {
+            out.println("wipeouts," + var + "," + wipeouts[var]);
+        }
+        // Each sample is keyed by its time in milliseconds.
+        synchronized (samples) {
+            for (long[] sample : samples) {
+                for (int k = 1; k < SAMPLE_COLUMNS.length; k++) {
+                    out.println("sample." + SAMPLE_COLUMNS[k] + "," + sample[0] + "," + sample[k]);
+                }
+            }
+        }
+    }
+
+    /**
+     * Gets the counters of a solver and the totals of the statistics, as names and values.
+     *
+     * @param solver The solver.
+     * @return The names and values.
+     */
+    private List<String[]> counters(Solver solver) {
+        List<String[]> counters = new ArrayList<>();
+        long solveTime = solver.endTime - solver.startTime;
+        counters.add(new String[] {"searchNodes", String.valueOf(solver.searchNodes)});
+        counters.add(new String[] {"restarts", String.valueOf(solver.restarts)});
+        counters.add(new String[] {"arcRevisions", String.valueOf(solver.arcRevisions)});
+        counters.add(new String[] {"constraintChecks", String.valueOf(solver.constraintChecks)});
+        counters.add(new String[] {"solutions", String.valueOf(solver.solutionCount())});
+        counters.add(new String[] {"solveTime", String.valueOf(solveTime / 1_000_000.0)});
+        counters.add(new String[] {"propagationTime", String.valueOf(propagationTime / 1_000_000.0)});
+        // With parallel search the propagation time is summed over every thread, so
+        // the branching time is only given for a sequential search.
+        if (solver.parallel == null) {
+            counters.add(new String[] {"branchingTime", String.valueOf((solveTime - propagationTime) / 1_000_000.0)});
+        }
+        counters.add(new String[] {"peakTrail", String.valueOf(peakTrail)});
+        return counters;
+    }
+
+    /**
+     * Gets the deepest depth at which a search node was recorded.
+     *
+     * @return The depth, or 0 if no search node was recorded.
+     */
+    private int maxDepth() {
+        int depth = depthNodes.length - 1;
+        while (depth > 0 && depthNodes[depth] == 0) {
+            depth--;
+        }
+        return depth;
+    }
+
+    /**
+     * Gets the key of an arc.
+     *
+     * @param current The order of the current variable.
+     * @param future The order of the future variable.
+     * @return The key.
+     */
+    private static long key(int current, int future) {
+        return ((long) current << 32) | future;
+    }
+}
@@ -0,0 +1,17 @@
+package csp;
+
+/**
+ * Receives the solutions of a CSP as the search finds them, so that they can be
+ * streamed without keeping every solution in memory. When several threads search in
+ * parallel, calls to the listener are synchronized on it.
+ */
+public interface SolutionListener {
+
+    /**
+     * Called when a solution is found.
+     *
+     * @param count The number of solutions found so far, including this one.
+     * @param values The values of the variables, indexed by order. The array is not reused.
+     */
+    void solutionFound(long count, int[] values);
+}
@@ -0,0 +1,859 @@
+package csp;
+
+import java.util.Comparator;
+import java.util.Map;
+import java.util.Random;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Solves a binary CSP.
+ */
+public abstract class Solver {
+
+    // The CSP to be solved.
+	BinaryCSP csp;
+
+	// Statistics.
+	long searchNodes;
+	long restarts;
+	long arcRevisions;
+	long constraintChecks;
+	long startTime;
+	long endTime; 
+
+	// The variable ordering heuristic to be used.
+	VariableOrdering ordering;
+
+	// The value ordering heuristic to be used, and the source of random values for it.
+	ValueOrdering valueOrdering;
+	Random random;
+
+	// Stores the variables to be assigned.
+	VariableHeap variables;
+
+	// Stores the values pruned from future variable domains, used to undo pruning.
+	Trail trail;
+
+	// Set once the search should stop, possibly shared with solvers on other threads.
+	AtomicBoolean stop;
+
+	// Whether the search has seen the stop flag set, and so may have left part of the
+	// search space unexplored.
+	private boolean interrupted;
+
+	// The values of the variables in the first solution found, or null if none has been found.
+	int[] solution;
+
+	// The number of solutions found, possibly shared with solvers on other threads.
+	AtomicLong solutions;
+
+	// The number of solutions to find before stopping, or 0 to find every solution.
+	long solutionLimit;
+
+	// Receives each solution found, or null if solutions are not streamed.
+	SolutionListener listener;
+
+	// The detailed statistics of the search, or null if they are not recorded.
+	SearchStatistics statistics;
+
+	// The parallel search this solver is part of, or null if it runs alone.
+	ParallelSearch parallel;
+
+	// The number of decisions from the root to the current node.
+	int depth;
+
+	// The choice points from the root to the current node.
+	SearchStack stack;
+
+	// Writes checkpoints of the search, or null if none are written.
+	Checkpoint checkpoint;
+
+	// The checkpoint the search resumes from, or null once it has been replayed.
+	Checkpoint resumed;
+
+    /**
+	 * Creates a new solver for a given CSP.
+	 *
+	 * @param csp The constraint satisfaction problem to be solved.
+	 * @param ordering The variable ordering heuristic to be used.
+	 * @param valueOrdering The value ordering heuristic to be used.
+	 */
+	public Solver(BinaryCSP csp, VariableOrdering ordering, ValueOrdering valueOrdering) {
+		this.csp = csp;
+		this.ordering = ordering;
+		this.valueOrdering = valueOrdering;
+		this.random = new Random(0);
+
+		// Initialise statistics.
+		searchNodes = 0;
+		restarts = 0;
+		arcRevisions = 0;
+		constraintChecks = 0;
+
+		// Initialise the queue of variables to be assigned using the given ordering.
+		Comparator<BinaryVariable> comparator = (ordering == VariableOrdering.SMALLEST_DOMAIN_FIRST)
+				? VariableOrdering.SmallestDomainComparator
+				: VariableOrdering.StaticComparator;
+		variables = new VariableHeap(csp.noVariables(), comparator);
+		for (BinaryVariable var : csp.getVars()) {
+			if (!var.assigned()) {
+				variables.add(var);
+			}
+		}
+
+		// Initialise the trail of pruned values.
+		trail = new Trail();
+
+		stop = new AtomicBoolean(false);
+		interrupted = false;
+		solution = null;
+		solutions = new AtomicLong(0);
+		solutionLimit = 1;
+		listener = null;
+		statistics = null;
+		parallel = null;
+		depth = 0;
+		stack = new SearchStack();
+		checkpoint = null;
+		resumed = null;
+	}
+
+	/**
+	 * Solves the CSP, returning once the solution limit is reached or the search space
+	 * is exhausted. The solutions are recorded and passed to the listener, not printed.
+	 */
+    public abstract void solve();
+
+	/**
+	 * Checks if the current node, which is consistent, is a leaf of the search tree:
+	 * a solution, which is recorded, or a node at which the search stops.
+	 *
+	 * @return True, if the node is a leaf.
+	 */
+	protected abstract boolean leaf();
+
+	/**
+	 * Chooses the decision to branch on at the current node.
+	 *
+	 * @param cp The choice point of the node, to be set.
+	 */
+	protected abstract void choose(ChoicePoint cp);
+
+	/**
+	 * Takes the next branch of a choice point, propagating its decision.
+	 *
+	 * @param cp The choice point.
+	 * @return True, if the node reached is consistent, false otherwise.
+	 */
+	protected abstract boolean branch(ChoicePoint cp);
+
+	/**
+	 * Undoes the current branch of a choice point, returning to its node.
+	 *
+	 * @param cp The choice point.
+	 * @return True, if another branch of the choice point should be taken, false if
+	 *         the search should return to the choice point before it.
+	 */
+	protected abstract boolean backtrack(ChoicePoint cp);
+
+	/**
+	 * Prepares a choice point restored from a checkpoint, as choose() would have,
+	 * before its branch is taken again. By default there is nothing to prepare.
+	 *
+	 * @param cp The choice point, set to its decision.
+	 */
+	protected void replay(ChoicePoint cp) {
+	}
+
+	/**
+	 * Checks if the solver labels each variable with each of its values in turn (d-way
+	 * branching) rather than branching on a single value (2-way branching).
+	 *
+	 * @return True, if the solver uses d-way branching.
+	 */
+	protected boolean labelling() {
+		return false;
+	}
+
+	/**
+	 * Explores the subtree below the current node. When resuming from a checkpoint,
+	 * the decisions of the checkpoint are replayed first, and the search continues
+	 * from the node they lead to.
+	 */
+	protected final void search() {
+		int base = stack.size();
+		boolean expand = true;
+		if (resumed != null) {
+			expand = resumed.replay(this);
+			resumed = null;
+		}
+		search(base, expand);
+	}
+
+	/**
+	 * Explores the subtree below the current node. The search is iterative: the choice
+	 * points from the root to the current node are kept on an explicit stack rather
+	 * than the call stack, so the depth of the search is only limited by memory.
+	 * Returns once every choice point above the base of the subtree has been
+	 * exhausted, or the search has stopped.
+	 *
+	 * @param base The number of choice points on the stack below the subtree.
+	 * @param expand True, if the current node is consistent and should be expanded.
+	 */
+	protected final void search(int base, boolean expand) {
+		while (true) {
+			if (expand && checkpoint != null && checkpoint.due()) {
+				// Save the path to this node, which is consistent, before expanding it.
+				checkpoint.write(this);
+			}
+			if (expand && !leaf()) {
+				ChoicePoint cp = stack.push();
+				choose(cp);
+				expand = branch(cp);
+			} else if (stack.size() == base) {
+				return;
+			} else {
+				// Return to the latest choice point, taking its next branch if it has one.
+				ChoicePoint cp = stack.peek();
+				if (backtrack(cp)) {
+					expand = branch(cp);
+				} else {
+					stack.pop();
+					expand = false;
+				}
+			}
+		}
+	}
+
+	/**
+	 * Creates a new solver of the same kind and with the same heuristics for a CSP.
+	 *
+	 * @param csp The constraint satisfaction problem to be solved.
+	 * @return The new solver.
+	 */
+	protected abstract Solver newSolver(BinaryCSP csp);
+
+	/**
+	 * Creates a solver of the same kind and with the same heuristics for a component
+	 * of the CSP, seeded from the random values of this solver.
+	 *
+	 * @param component The component to be solved.
+	 * @return The new solver.
+	 */
+	public Solver componentSolver(BinaryCSP component) {
+		Solver solver = newSolver(component);
+		solver.setSeed(random.nextLong());
+		return solver;
+	}
+
+	/**
+	 * Creates a solver continuing the search of this solver from the current node, on
+	 * a copy of the CSP. It shares the cancellation flag, solution count, solution
+	 * listener and parallel search of this solver.
+	 *
+	 * @param snapshot A copy of the CSP taken at the current node.
+	 * @return The new solver.
+	 */
+	Solver spawn(BinaryCSP snapshot) {
+		Solver child = newSolver(snapshot);
+		child.stop = stop;
+		child.solutions = solutions;
+		child.solutionLimit = solutionLimit;
+		child.listener = listener;
+		if (statistics != null) {
+			child.statistics = new SearchStatistics(snapshot.noVariables());
+		}
+		child.parallel = parallel;
+		child.depth = depth;
+		child.startTime = startTime;
+		child.random = new Random(random.nextLong());
+		return child;
+	}
+
+	/**
+	 * Sets the seed used by the random value ordering.
+	 *
+	 * @param seed The seed.
+	 */
+	public void setSeed(long seed) {
+		random = new Random(seed);
+	}
+
+	/**
+	 * Shares a cancellation flag with other solvers. The solver stops as soon as the
+	 * flag is set, and sets it when it finds a solution.
+	 *
+	 * @param stop The cancellation flag.
+	 */
+	public void setStop(AtomicBoolean stop) {
+		this.stop = stop;
+	}
+
+	/**
+	 * Shares a solution count with other solvers, so that the solution limit applies to
+	 * the solutions found by all of them.
+	 *
+	 * @param solutions The solution count.
+	 */
+	public void setSolutionCounter(AtomicLong solutions) {
+		this.solutions = solutions;
+	}
+
+	/**
+	 * Sets the number of solutions to find before the search stops. By default the
+	 * search stops at the first solution.
+	 *
+	 * @param solutionLimit The number of solutions, or 0 to enumerate every solution.
+	 */
+	public void setSolutionLimit(long solutionLimit) {
+		this.solutionLimit = solutionLimit;
+	}
+
+	/**
+	 * Sets the listener that receives each solution as it is found.
+	 *
+	 * @param listener The listener, or null to only count solutions.
+	 */
+	public void setSolutionListener(SolutionListener listener) {
+		this.listener = listener;
+	}
+
+	/**
+	 * Sets the detailed statistics recorded during the search.
+	 *
+	 * @param statistics The statistics, or null to only keep the counters.
+	 */
+	public void setStatistics(SearchStatistics statistics) {
+		this.statistics = statistics;
+	}
+
+	/**
+	 * Sets the checkpoints written during the search, at the interval their timer is
+	 * started with.
+	 *
+	 * @param checkpoint The checkpoints, or null to write none.
+	 */
+	public void setCheckpoint(Checkpoint checkpoint) {
+		this.checkpoint = checkpoint;
+	}
+
+	/**
+	 * Resumes the search from a checkpoint, whose decisions are replayed once the
+	 * search starts. The checkpoint must match the solver.
+	 *
+	 * @param checkpoint The checkpoint.
+	 */
+	public void resumeFrom(Checkpoint checkpoint) {
+		this.resumed = checkpoint;
+	}
+
+	/**
+	 * Gets the detailed statistics recorded during the search.
+	 *
+	 * @return The statistics, or null if they are not recorded.
+	 */
+	public SearchStatistics statistics() {
+		return statistics;
+	}
+
+	/**
+	 * Gets the first solution found by the solver.
+	 *
+	 * @return The values of the variables, indexed by order, or null if no solution was found.
+	 */
+	public int[] solution() {
+		return solution;
+	}
+
+	/**
+	 * Gets the number of solutions found.
+	 *
+	 * @return The number of solutions found, by this solver and any sharing its count.
+	 */
+	public long solutionCount() {
+		// Solvers sharing the count may find a few more solutions than the limit before stopping.
+		long count = solutions.get();
+		return solutionLimit == 0 ? count : Math.min(count, solutionLimit);
+	}
+
+	/**
+	 * Gets the number of nodes searched.
+	 *
+	 * @return The number of search nodes.
+	 */
+	public long searchNodes() {
+		return searchNodes;
+	}
+
+	/**
+	 * Gets the number of arc revisions made.
+	 *
+	 * @return The number of arc revisions.
+	 */
+	public long arcRevisions() {
+		return arcRevisions;
+	}
+
+	/**
+	 * Gets the number of constraint checks made.
+	 *
+	 * @return The number of constraint checks.
+	 */
+	public long constraintChecks() {
+		return constraintChecks;
+	}
+
+	/**
+	 * Gets the time taken by the search.
+	 *
+	 * @return The solve time in nanoseconds.
+	 */
+	public long solveTime() {
+		return endTime - startTime;
+	}
+
+	/**
+	 * Checks if the search should stop, because a solution has been found or the
+	 * search has been cancelled.
+	 *
+	 * @return True, if the search should stop.
+	 */
+	protected boolean stopped() {
+		if (stop.get()) {
+			interrupted = true;
+		}
+		return interrupted;
+	}
+
+	/**
+	 * Checks if the search has seen the stop flag set, so it may have stopped before
+	 * exploring the whole search space. A flag set once the search has finished is
+	 * never seen.
+	 *
+	 * @return True, if the search was stopped.
+	 */
+	public boolean interrupted() {
+		return interrupted;
+	}
+
+	/**
+	 * Counts the current complete assignment as a solution and passes it to the
+	 * listener, if any. The first solution is also recorded, and the search is stopped
+	 * once the solution limit is reached. If the solution count is shared, solutions
+	 * found by other solvers after the limit was reached are ignored.
+	 */
+	protected void solutionFound() {
+		long count;
+		if (listener == null) {
+			count = solutions.incrementAndGet();
+		} else {
+			// Count and pass on the solution together, so solutions reach the listener in order.
+			synchronized (listener) {
+				count = solutions.incrementAndGet();
+				if (solutionLimit == 0 || count <= solutionLimit) {
+					listener.solutionFound(count, assignment());
+				}
+			}
+		}
+		if (solutionLimit != 0 && count > solutionLimit) {
+			return;
+		}
+		if (count == 1) {
+			solution = assignment();
+			if (parallel != null) {
+				parallel.solutionFound(this);
+			}
+		}
+		if (count == solutionLimit) {
+			stop.set(true);
+		}
+	}
+
+	/**
+	 * Gets the values of the variables in the current complete assignment.
+	 *
+	 * @return The values of the variables, indexed by order.
+	 */
+	private int[] assignment() {
+		int[] values = new int[csp.noVariables()];
+		for (BinaryVariable var : csp.getVars()) {
+			values[var.order()] = var.value();
+		}
+		return values;
+	}
+
+    /**
+	 * Prints the statistics of the search and the first solution found, if any.
+	 */
+	public void showSolution() {
+		System.out.println("======= Statistics =======");
+		showStatistics();
+		System.out.println("======== Solution ========");
+		if (solution == null) {
+			System.out.println("No solution");
+			return;
+		}
+		for (int i = 0; i < solution.length; i++) {
+			System.out.println("Var " + i + ": " + solution[i]);
+		}
+	}
+
+	/**
+	 * Prints the statistics of the search, one per line.
+	 */
+	protected void showStatistics() {
+        System.out.println("Solver: " + this.getClass().getSimpleName());
+		System.out.println("Variable Ordering: " + VariableOrdering.toString(ordering));
+		System.out.println("Value Ordering: " + ValueOrdering.toString(valueOrdering));
+		System.out.println("Search Nodes: " + searchNodes);
+		System.out.println("Restarts: " + restarts);
+		if (parallel != null) {
+			for (Map.Entry<Integer, LongAdder> entry : parallel.threadNodes().entrySet()) {
+				System.out.println("Thread " + entry.getKey() + " Search Nodes: " + entry.getValue());
+			}
+		}
+		System.out.println("Arc Revisions: " + arcRevisions);
+		System.out.println("Constraint Checks: " + constraintChecks);
+		System.out.println("Solve Time: " + (endTime - startTime) / 1_000_000.0 + " ms");
+		if (checkpoint != null) {
+			System.out.println("Checkpoints: " + checkpoint.written() + " (" + checkpoint.writeTime() / 1_000_000.0 + " ms)");
+		}
+		System.out.println("Variables: " + csp.noVariables());
+		System.out.println("Constraints: " + csp.noConstraints());
+		System.out.println("Solutions: " + solutionCount());
+	}
+
+    /**
+	 * Assigns a value to a variable.
+	 * 
+	 * @param var The variable to be assigned.
+	 * @param value The value to be assigned.
+	 */
+	protected void assign(BinaryVariable var, int value) {
+		var.assign(value);
+	}
+
+	/**
+	 * Unassigns a variable.
+	 * 
+	 * @param var The variable to be unassigned.
+	 */
+	protected void unassign(BinaryVariable var) {
+		var.unassign();
+	}
+
+	/**
+	 * Selects a value from the domain of a variable using the value ordering.
+	 * 
+	 * @param var The variable to select a value from.
+	 * @return A value from the domain of the variable.
+	 */
+	protected int selectVal(BinaryVariable var) {
+		Domain domain = var.domain();
+		switch (valueOrdering) {
+			case DESCENDING:
+				return domain.last();
+			case MIN_CONFLICTS:
+				return leastConflictingVal(var);
+			case RANDOM:
+				int val = domain.first();
+				for (int i = random.nextInt(domain.size()); i > 0; i--) {
+					val = domain.next(val);
+				}
+				return val;
+			default:
+				return domain.first();
+		}
+	}
+
+	/**
+	 * Orders every value in the domain of a variable using the value ordering, for
+	 * solvers that try each value in turn.
+	 *
+	 * @param var The variable to order the values of.
+	 * @return The values of the variable, in the order they should be tried.
+	 */
+	protected int[] orderedVals(BinaryVariable var) {
+		Domain domain = var.domain();
+		int[] vals = new int[domain.size()];
+		int n = 0;
+		for (int val = domain.first(); val != Domain.NONE; val = domain.next(val)) {
+			vals[n++] = val;
+		}
+		switch (valueOrdering) {
+			case DESCENDING:
+				for (int i = 0; i < n / 2; i++) {
+					int tmp = vals[i];
+					vals[i] = vals[n - 1 - i];
+					vals[n - 1 - i] = tmp;
+				}
+				break;
+			case MIN_CONFLICTS:
+				// Insertion sort by decreasing support count, keeping ties ascending.
+				int[] counts = new int[n];
+				for (int i = 0; i < n; i++) {
+					int val = vals[i], count = supportCount(var, val), j = i;
+					while (j > 0 && counts[j - 1] < count) {
+						vals[j] = vals[j - 1];
+						counts[j] = counts[j - 1];
+						j--;
+					}
+					vals[j] = val;
+					counts[j] = count;
+				}
+				break;
+			case RANDOM:
+				for (int i = n - 1; i > 0; i--) {
+					int j = random.nextInt(i + 1), tmp = vals[i];
+					vals[i] = vals[j];
+					vals[j] = tmp;
+				}
+				break;
+			default:
+				break;
+		}
+		return vals;
+	}
+
+	/**
+	 * Selects the value of a variable that conflicts with the fewest values of unassigned
+	 * variables, that is the value with the most supports. Ties are broken by the smallest value.
+	 *
+	 * @param var The variable to select a value from.
+	 * @return The least conflicting value.
+	 */
+	private int leastConflictingVal(BinaryVariable var) {
+		Domain domain = var.domain();
+		int best = Domain.NONE, bestCount = -1;
+		for (int val = domain.first(); val != Domain.NONE; val = domain.next(val)) {
+			int count = supportCount(var, val);
+			if (count > bestCount) {
+				best = val;
+				bestCount = count;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Counts the supports of a value of a variable in the domains of the unassigned
+	 * variables it is constrained with, using the compiled support matrices.
+	 *
+	 * @param var The variable.
+	 * @param val The value.
+	 * @return The number of supports of the value.
+	 */
+	private int supportCount(BinaryVariable var, int val) {
+		int count = 0;
+		for (BinaryArc arc : csp.futureArcs(var)) {
+			if (!arc.future().assigned()) {
+				count += arc.supportCount(val);
+			}
+		}
+		return count;
+	}
+
+	/**
+	 * Selects a variable. Conflict-directed orderings scan the variables to be assigned
+	 * for the smallest ratio of domain size to (weighted) degree, as the degrees change
+	 * with every assignment and wipeout.
+	 * 
+	 * @return A variable.
+	 */
+	protected BinaryVariable selectVar() {
+		if (ordering != VariableOrdering.DOM_WDEG && ordering != VariableOrdering.DOM_DDEG) {
+			return variables.peek();
+		}
+		BinaryVariable best = null;
+		long bestDom = 0, bestDeg = 0;
+		for (int i = 0; i < variables.size(); i++) {
+			BinaryVariable var = variables.get(i);
+			long dom = var.domain().size();
+			long deg = degree(var);
+			// Prefer the smaller dom/deg ratio, breaking ties by order, smallest first.
+			if (best == null || dom * bestDeg < bestDom * deg
+					|| (dom * bestDeg == bestDom * deg && var.order() < best.order())) {
+				best = var;
+				bestDom = dom;
+				bestDeg = deg;
+			}
+		}
+		return best;
+	}
+
+	/**
+	 * Computes the degree of a variable used by conflict-directed orderings: the number
+	 * of constraints with other unassigned variables for dom/ddeg, or the sum of their
+	 * weights for dom/wdeg.
+	 *
+	 * @param var The variable.
+	 * @return The degree of the variable.
+	 */
+	private int degree(BinaryVariable var) {
+		int degree = 0;
+		for (BinaryArc arc : csp.futureArcs(var)) {
+			if (!arc.future().assigned()) {
+				degree += (ordering == VariableOrdering.DOM_WDEG) ? arc.weight() : 1;
+			}
+		}
+		for (TableConstraint table : csp.tables(var)) {
+			for (BinaryVariable other : table.scope()) {
+				if (other != var && !other.assigned()) {
+					degree += (ordering == VariableOrdering.DOM_WDEG) ? table.weight() : 1;
+					break;
+				}
+			}
+		}
+		return degree;
+	}
+
+	/**
+	 * Restore value to a variable.
+	 *
+	 * @param var The variable to restore the value to.
+	 * @param val The value to restore.
+	 */
+	protected void restoreValue(BinaryVariable var, int val) {
+		var.add(val);
+		domainChanged(var);
+	}
+
+	/**
+	 * Delete value from a variable.
+	 * 
+	 * @param var The variable to delete the value from.
+	 * @param val The value to delete.
+	 */
+	protected void deleteValue(BinaryVariable var, int val) {
+		var.remove(val);
+		domainChanged(var);
+	}
+
+	/**
+	 * Prune a value from the domain of a future variable, recording it on the trail so
+	 * it can be restored by undoPruning().
+	 *
+	 * @param var The variable to prune the value from.
+	 * @param val The value to prune.
+	 */
+	protected void prune(BinaryVariable var, int val) {
+		var.remove(val);
+		trail.record(var, val);
+		domainChanged(var);
+	}
+
+	/**
+	 * Notifies the solver that the domain of a variable has changed. For dynamic
+	 * orderings, this moves the variable to its new place among the variables to be assigned.
+	 *
+	 * @param var The variable whose domain has changed.
+	 */
+	protected void domainChanged(BinaryVariable var) {
+		if (ordering == VariableOrdering.SMALLEST_DOMAIN_FIRST) {
+			variables.update(var);
+		}
+	}
+
+    /**
+	 * Revise an arc, pruning the domain of the future variable based on the assignment
+	 * of the current variable.
+	 *
+	 * Removed values are recorded on the trail so they can be restored by undoPruning().
+	 *
+	 * @param arc The arc to be revised.
+	 * @return True, if the domain of the future variable was pruned, false otherwise.
+	 */
+	protected boolean revise(BinaryArc arc) {
+		BinaryVariable future = arc.future();
+		// If the future variable is assgined, don't revise.
+		if (future.assigned()) {
+			return false;
+		}
+
+		// Remove all values in the future domain that are not supported, using the
+		// revision rule of the constraint.
+		int trailSize = trail.size();
+		boolean pruned = arc.revise(this);
+
+		// Count the revision if the domain was pruned.
+		if (pruned) {
+			revised(arc, trail.size() - trailSize);
+		}
+		return pruned;
+	}
+
+	/**
+	 * Counts a revision of an arc that pruned values. If it wiped out the domain of
+	 * the future variable, the weight of the constraint is increased for
+	 * conflict-directed orderings.
+	 *
+	 * @param arc The arc that was revised.
+	 * @param removed The number of values pruned.
+	 */
+	protected void revised(BinaryArc arc, int removed) {
+		arcRevisions++;
+		if (arc.future().domain().isEmpty()) {
+			arc.bumpWeight();
+		}
+		if (statistics != null) {
+			statistics.revised(arc, removed);
+		}
+	}
+
+	/**
+	 * Counts a search node.
+	 *
+	 * @param depth The number of decisions from the root to the node.
+	 */
+	protected void countNode(int depth) {
+		searchNodes++;
+		if (statistics != null) {
+			statistics.node(depth);
+		}
+	}
+
+	/**
+	 * Gets the start time of a propagation, if its time is recorded.
+	 *
+	 * @return The current time in nanoseconds, or 0 if statistics are not recorded.
+	 */
+	protected long propagationStart() {
+		return statistics == null ? 0 : System.nanoTime();
+	}
+
+	/**
+	 * Records the time taken by a propagation, if statistics are recorded.
+	 *
+	 * @param start The start time returned by propagationStart().
+	 */
+	protected void propagationEnd(long start) {
+		if (statistics != null) {
+			statistics.propagated(System.nanoTime() - start);
+		}
+	}
+
+	/**
+	 * Undo the pruning of the domains of future variables made since the trail had a
+	 * number of marks.
+	 *
+	 * @param marks The number of marks.
+	 */
+	protected void undoPruning(int marks) {
+		while (trail.marks() > marks) {
+			undoPruning();
+		}
+	}
+
+    /**
+	 * Undo the pruning of the domains of future variables made since the last mark
+	 * on the trail.
+	 */
+	protected void undoPruning() {
+		int mark = trail.popMark();
+		while (trail.size() > mark) {
+			domainChanged(trail.pop());
+		}
+	}
+}
@@ -0,0 +1,123 @@
+package csp;
+
+import java.util.Arrays;
+
+/**
+ * Represents a symmetry of a CSP, declared with the CSP, which maps each solution to
+ * another solution. The symmetry maps each variable to a variable and each value to a
+ * value, so the assignment var = val is mapped to image(var) = image(val). A variable
+ * symmetry leaves the values unchanged, and a value symmetry the variables.
+ */
+public final class Symmetry {
+
+    // The order of the image of each variable, indexed by order.
+    private final int[] vars;
+
+    // The image of each value from the lowest value, or null if values are unchanged.
+    private final int lowerBound;
+    private final int[] vals;
+
+    /**
+     * Creates a new symmetry.
+     *
+     * @param vars The order of the image of each variable, a permutation of the orders.
+     * @param lowerBound The lowest value mapped.
+     * @param vals The image of each value from the lowest, a permutation of those
+     *             values, or null to leave values unchanged.
+     */
+    public Symmetry(int[] vars, int lowerBound, int[] vals) {
+        checkPermutation(vars, 0);
+        if (vals != null) {
+            checkPermutation(vals, lowerBound);
+        }
+        this.vars = vars.clone();
+        this.lowerBound = lowerBound;
+        this.vals = vals == null ? null : vals.clone();
+    }
+
+    /**
+     * Checks that the images of a range of integers are a permutation of the range.
+     *
+     * @param images The images of the integers from the lowest.
+     * @param lowerBound The lowest integer.
+     */
+    private static void checkPermutation(int[] images, int lowerBound) {
+        boolean[] seen = new boolean[images.length];
+        for (int image : images) {
+            int offset = image - lowerBound;
+            if (offset < 0 || offset >= images.length || seen[offset]) {
+                throw new IllegalArgumentException("Not a permutation: " + image);
+            }
+            seen[offset] = true;
+        }
+    }
+
+    /**
+     * Gets the image of a variable.
+     *
+     * @param order The order of the variable.
+     * @return The order of its image.
+     */
+    public int var(int order) {
+        return vars[order];
+    }
+
+    /**
+     * Gets the image of a value.
+     *
+     * @param val The value.
+     * @return The image of the value, or Domain.NONE if the value is not mapped.
+     */
+    public int val(int val) {
+        if (vals == null) {
+            return val;
+        }
+        int offset = val - lowerBound;
+        return offset >= 0 && offset < vals.length ? vals[offset] : Domain.NONE;
+    }
+
+    /**
+     * Restricts the symmetry to some of the variables, renumbered in the given order,
+     * if it maps them among themselves.
+     *
+     * @param orders The orders of the variables, the i-th becoming variable i.
+     * @param noVariables The number of variables of the CSP.
+     * @return The restricted symmetry, or null if it maps one of the variables to
+     *         another variable.
+     */
+    public Symmetry restrict(int[] orders, int noVariables) {
+        int[] renumbered = new int[noVariables];
+        Arrays.fill(renumbered, -1);
+        for (int i = 0; i < orders.length; i++) {
+            renumbered[orders[i]] = i;
+        }
+        int[] restricted = new int[orders.length];
+        for (int i = 0; i < orders.length; i++) {
+            restricted[i] = renumbered[vars[orders[i]]];
+            if (restricted[i] < 0) {
+                return null;
+            }
+        }
+        return new Symmetry(restricted, lowerBound, vals);
+    }
+
+    /**
+     * Returns a string representation of the symmetry, in the format of the file.
+     *
+     * @return String representation of the symmetry.
+     */
+    public String toString() {
+        StringBuilder result = new StringBuilder("s(");
+        for (int i = 0; i < vars.length; i++) {
+            result.append(i == 0 ? "" : ", ").append(vars[i]);
+        }
+        result.append(")");
+        if (vals != null) {
+            result.append(":");
+            for (int i = 0; i < vals.length; i++) {
+                result.append(i == 0 ? " " : ", ").append(vals[i]);
+            }
+        }
+        return result.toString();
+    }
+}
@@ -0,0 +1,398 @@
+package csp;
+
+import java.util.Arrays;
+
+/**
+ * Represents a table constraint over any number of variables, given by its allowed
+ * tuples and propagated with Compact-Table (CT) to generalized arc consistency. The
+ * tuples still valid, those whose values are all in the current domains, form the
+ * current table: a reversible sparse bitset over the tuples, whose words are kept with
+ * the indices of the non-zero words in front, so only those are ever visited. Each value
+ * of each variable has a bitset of the tuples it appears in. When domains change, the
+ * current table is intersected with the union of the bitsets of the values left, and a
+ * value keeps its place in its domain only while its bitset meets the current table,
+ * which is first checked at the word where it last met it (its residue). The changed
+ * words and the number of non-zero words are saved on the trail of the solver, so
+ * backtracking restores the current table.
+ */
+public final class TableConstraint {
+
+    // The variables of the constraint.
+    private final BinaryVariable[] scope;
+
+    // The number of allowed tuples whose values are within the initial domains.
+    private final int noTuples;
+
+    // The tuples each value appears in, indexed by the position of the variable in the
+    // scope and the offset of the value in its initial domain, or null if none.
+    private final long[][][] supports;
+
+    // The words of the current table, and the indices of its words, of which the first
+    // limit[0] are non-zero. The limit is held in an array so it can be saved on the trail.
+    private final long[] words;
+    private final int[] index;
+    private final int[] limit;
+
+    // The union of the bitsets of the values left in a domain, built while updating.
+    private final long[] mask;
+
+    // The word at which each value last met the current table, indexed like supports.
+    private final int[][] residues;
+
+    // The domain size of each variable when the constraint last saw it, 1 once assigned
+    // and -1 before the first propagation.
+    private final int[] lastSizes;
+
+    // The weight of the constraint, increased each time it causes a domain wipeout.
+    private int weight;
+
+    /**
+     * Creates a new table constraint, compiling its allowed tuples. Tuples with a value
+     * outside the initial domain of its variable can never be used and are dropped.
+     *
+     * @param scope The variables of the constraint, all different.
+     * @param tuples The allowed tuples, each with one value per variable of the scope.
+     */
+    public TableConstraint(BinaryVariable[] scope, int[][] tuples) {
+        this.scope = scope.clone();
+        int[][] kept = new int[tuples.length][];
+        int n = 0;
+        for (int[] tuple : tuples) {
+            if (tuple.length != scope.length) {
+                throw new IllegalArgumentException("Expected tuples of " + scope.length + " values, not " + tuple.length);
+            }
+            if (inBounds(tuple)) {
+                kept[n++] = tuple;
+            }
+        }
+        noTuples = n;
+        int noWords = (n + 63) >>> 6;
+
+        // Compile the bitset of the tuples each value appears in.
+        supports = new long[scope.length][][];
+        residues = new int[scope.length][];
+        for (int i = 0; i < scope.length; i++) {
+            Domain domain = scope[i].domain();
+            int range = Math.max(0, domain.upperBound() - domain.lowerBound() + 1);
+            supports[i] = new long[range][];
+            residues[i] = new int[range];
+            for (int t = 0; t < n; t++) {
+                int offset = kept[t][i] - domain.lowerBound();
+                if (supports[i][offset] == null) {
+                    supports[i][offset] = new long[noWords];
+                }
+                supports[i][offset][t >>> 6] |= 1L << t;
+            }
+        }
+
+        // Every tuple is valid before propagation.
+        words = new long[noWords];
+        index = new int[noWords];
+        for (int w = 0; w < noWords; w++) {
+            words[w] = w < noWords - 1 || (n & 63) == 0 ? -1L : (1L << (n & 63)) - 1;
+            index[w] = w;
+        }
+        limit = new int[] {noWords};
+        mask = new long[noWords];
+        lastSizes = new int[scope.length];
+        Arrays.fill(lastSizes, -1);
+        weight = 1;
+    }
+
+    /**
+     * Creates a copy of a table constraint onto copies of its variables, with the same
+     * current table and weight. The compiled bitsets are never modified, so they are
+     * shared with the copy.
+     *
+     * @param other The table constraint.
+     * @param scope Copies of the variables of the constraint.
+     */
+    private TableConstraint(TableConstraint other, BinaryVariable[] scope) {
+        this.scope = scope;
+        this.noTuples = other.noTuples;
+        this.supports = other.supports;
+        this.words = other.words.clone();
+        this.index = other.index.clone();
+        this.limit = other.limit.clone();
+        this.mask = new long[other.mask.length];
+        this.residues = new int[other.residues.length][];
+        for (int i = 0; i < residues.length; i++) {
+            residues[i] = other.residues[i].clone();
+        }
+        this.lastSizes = other.lastSizes.clone();
+        this.weight = other.weight;
+    }
+
+    /**
+     * Copies the constraint onto copies of its variables.
+     *
+     * @param scope Copies of the variables of the constraint, in the same order.
+     * @return The copied constraint.
+     */
+    public TableConstraint copy(BinaryVariable[] scope) {
+        return new TableConstraint(this, scope.clone());
+    }
+
+    /**
+     * Checks if every value of a tuple lies within the initial bounds of the domain of
+     * its variable.
+     *
+     * @param tuple The tuple.
+     * @return True if every value is within the bounds, false otherwise.
+     */
+    private boolean inBounds(int[] tuple) {
+        for (int i = 0; i < scope.length; i++) {
+            Domain domain = scope[i].domain();
+            if (tuple[i] < domain.lowerBound() || tuple[i] > domain.upperBound()) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Gets the variables of the constraint. The array is shared, so it must not be
+     * modified.
+     *
+     * @return The variables.
+     */
+    public BinaryVariable[] scope() {
+        return scope;
+    }
+
+    /**
+     * Gets the number of allowed tuples.
+     *
+     * @return The number of tuples.
+     */
+    public int noTuples() {
+        return noTuples;
+    }
+
+    /**
+     * Gets the weight of the constraint, used by conflict-directed variable orderings.
+     *
+     * @return The weight of the constraint.
+     */
+    public int weight() {
+        return weight;
+    }
+
+    /**
+     * Sets the weight of the constraint, restoring it from a checkpoint.
+     *
+     * @param weight The weight.
+     */
+    public void setWeight(int weight) {
+        this.weight = weight;
+    }
+
+    /**
+     * Checks if the values assigned to the variables of the constraint form an allowed
+     * tuple, by intersecting the bitsets of the values one word at a time. Every
+     * variable of the constraint must be assigned.
+     *
+     * @return True if the tuple is allowed, false otherwise.
+     */
+    public boolean isSatisfied() {
+        for (int i = 0; i < scope.length; i++) {
+            if (bitset(i, scope[i].value()) == null) {
+                return false;
+            }
+        }
+        for (int w = 0; w < words.length; w++) {
+            long word = -1L;
+            for (int i = 0; i < scope.length && word != 0; i++) {
+                word &= bitset(i, scope[i].value())[w];
+            }
+            if (word != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Gets the bitset of the tuples a value appears in.
+     *
+     * @param i The position of the variable in the scope.
+     * @param val The value.
+     * @return The bitset, or null if the value appears in no tuple.
+     */
+    private long[] bitset(int i, int val) {
+        Domain domain = scope[i].domain();
+        if (val < domain.lowerBound() || val > domain.upperBound()) {
+            return null;
+        }
+        return supports[i][val - domain.lowerBound()];
+    }
+
+    /**
+     * Enforces generalized arc consistency on the constraint. The current table is first
+     * updated with the variables whose domains have changed since the constraint last
+     * saw them, an assigned variable counting as the single value it is assigned. Each
+     * value of an unassigned variable that no longer appears in a valid tuple is then
+     * pruned, on the trail of the solver. If only one variable has changed, its own
+     * values are left as they are, since each of them still has the tuples it had.
+     *
+     * @param solver The solver, whose trail has been marked.
+     * @param queue The queue the pruned variables are added to, or null.
+     * @return False, if no tuple is valid any more, true otherwise.
+     */
+    boolean propagate(Solver solver, PropagationQueue queue) {
+        Trail trail = solver.trail;
+        int changed = -1;
+        int noChanged = 0;
+        boolean first = false;
+        for (int i = 0; i < scope.length; i++) {
+            BinaryVariable var = scope[i];
+            int size = var.assigned() ? 1 : var.domain().size();
+            if (size == lastSizes[i]) {
+                continue;
+            }
+            first |= lastSizes[i] < 0;
+            trail.save(lastSizes, i);
+            lastSizes[i] = size;
+            changed = i;
+            noChanged++;
+
+            // Keep the tuples whose value for the variable is still in its domain.
+            clearMask();
+            if (var.assigned()) {
+                addToMask(bitset(i, var.value()));
+            } else {
+                Domain domain = var.domain();
+                for (int val = domain.first(); val != Domain.NONE; val = domain.next(val)) {
+                    addToMask(bitset(i, val));
+                }
+            }
+            intersectWithMask(trail);
+            if (limit[0] == 0) {
+                weight++;
+                return false;
+            }
+        }
+        if (noChanged == 0) {
+            return true;
+        }
+
+        // Prune the values that no longer appear in a valid tuple.
+        for (int i = 0; i < scope.length; i++) {
+            BinaryVariable var = scope[i];
+            if (var.assigned() || (noChanged == 1 && i == changed && !first)) {
+                continue;
+            }
+            boolean pruned = false;
+            Domain domain = var.domain();
+            for (int val = domain.first(); val != Domain.NONE; val = domain.next(val)) {
+                solver.constraintChecks++;
+                if (!hasSupport(i, val)) {
+                    solver.prune(var, val);
+                    pruned = true;
+                }
+            }
+            if (pruned) {
+                solver.arcRevisions++;
+                trail.save(lastSizes, i);
+                lastSizes[i] = domain.size();
+                if (queue != null) {
+                    queue.add(var);
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Checks if a value still appears in a valid tuple, first at its residue and then in
+     * every non-zero word of the current table.
+     *
+     * @param i The position of the variable in the scope.
+     * @param val The value.
+     * @return True if the value has a valid tuple, false otherwise.
+     */
+    private boolean hasSupport(int i, int val) {
+        int offset = val - scope[i].domain().lowerBound();
+        long[] bitset = supports[i][offset];
+        if (bitset == null) {
+            return false;
+        }
+        int residue = residues[i][offset];
+        if ((words[residue] & bitset[residue]) != 0) {
+            return true;
+        }
+        for (int k = 0; k < limit[0]; k++) {
+            int w = index[k];
+            if ((words[w] & bitset[w]) != 0) {
+                residues[i][offset] = w;
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Clears the non-zero words of the mask.
+     */
+    private void clearMask() {
+        for (int k = 0; k < limit[0]; k++) {
+            mask[index[k]] = 0;
+        }
+    }
+
+    /**
+     * Adds the tuples of a value to the mask, in the non-zero words of the current table.
+     *
+     * @param bitset The bitset of the tuples of the value, or null if it has none.
+     */
+    private void addToMask(long[] bitset) {
+        if (bitset == null) {
+            return;
+        }
+        for (int k = 0; k < limit[0]; k++) {
+            int w = index[k];
+            mask[w] |= bitset[w];
+        }
+    }
+
+    /**
+     * Intersects the current table with the mask, saving each changed word on the trail.
+     * A word that becomes zero is swapped behind the non-zero words.
+     *
+     * @param trail The trail.
+     */
+    private void intersectWithMask(Trail trail) {
+        boolean limitSaved = false;
+        for (int k = limit[0] - 1; k >= 0; k--) {
+            int w = index[k];
+            long word = words[w] & mask[w];
+            if (word == words[w]) {
+                continue;
+            }
+            trail.save(words, w);
+            words[w] = word;
+            if (word == 0) {
+                if (!limitSaved) {
+                    trail.save(limit, 0);
+                    limitSaved = true;
+                }
+                int last = --limit[0];
+                index[k] = index[last];
+                index[last] = w;
+            }
+        }
+    }
+
+    /**
+     * Returns a string representation of the constraint.
+     *
+     * @return String representation of the constraint.
+     */
+    public String toString() {
+        StringBuilder result = new StringBuilder("c(");
+        for (int i = 0; i < scope.length; i++) {
+            result.append(i == 0 ? "" : ", ").append(scope[i].order());
+        }
+        return result.append("): ").append(noTuples).append(" tuples").toString();
+    }
+}
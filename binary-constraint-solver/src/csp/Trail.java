@@ -0,0 +1,188 @@
+package csp;
+
+import java.util.Arrays;
+
+/**
+ * Records the values pruned from variable domains so that the pruning can be undone
+ * when backtracking. Entries are grouped by marks, each mark corresponding to one
+ * propagation step of the search. The trail can also save the old contents of int
+ * and long array slots (such as last supports or the words of the current table of a
+ * table constraint), which are restored when their mark is popped.
+ */
+public final class Trail {
+
+    // The variables and values of the recorded removals.
+    private BinaryVariable[] vars;
+    private int[] vals;
+    private int size;
+
+    // The largest number of recorded removals at once.
+    private int peakSize;
+
+    // The arrays, indices and old contents of the saved slots.
+    private int[][] slotArrays;
+    private int[] slotIndices;
+    private int[] slotValues;
+    private int slots;
+
+    // The arrays, indices and old contents of the saved long slots.
+    private long[][] longSlotArrays;
+    private int[] longSlotIndices;
+    private long[] longSlotValues;
+    private int longSlots;
+
+    // The trail sizes, slot counts and long slot counts at each mark.
+    private int[] marks;
+    private int[] slotMarks;
+    private int[] longSlotMarks;
+    private int depth;
+
+    /**
+     * Creates a new empty trail.
+     */
+    public Trail() {
+        vars = new BinaryVariable[64];
+        vals = new int[64];
+        slotArrays = new int[64][];
+        slotIndices = new int[64];
+        slotValues = new int[64];
+        longSlotArrays = new long[16][];
+        longSlotIndices = new int[16];
+        longSlotValues = new long[16];
+        marks = new int[16];
+        slotMarks = new int[16];
+        longSlotMarks = new int[16];
+        size = 0;
+        peakSize = 0;
+        slots = 0;
+        longSlots = 0;
+        depth = 0;
+    }
+
+    /**
+     * Gets the number of recorded removals.
+     *
+     * @return The number of recorded removals.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the largest number of removals recorded at once.
+     *
+     * @return The largest number of recorded removals.
+     */
+    public int peakSize() {
+        return peakSize;
+    }
+
+    /**
+     * Gets the number of marks.
+     *
+     * @return The number of marks.
+     */
+    public int marks() {
+        return depth;
+    }
+
+    /**
+     * Starts a new group of removals.
+     */
+    public void mark() {
+        if (depth == marks.length) {
+            marks = Arrays.copyOf(marks, depth * 2);
+            slotMarks = Arrays.copyOf(slotMarks, depth * 2);
+            longSlotMarks = Arrays.copyOf(longSlotMarks, depth * 2);
+        }
+        slotMarks[depth] = slots;
+        longSlotMarks[depth] = longSlots;
+        marks[depth++] = size;
+    }
+
+    /**
+     * Removes the most recent mark, restoring every slot saved since it. The removals
+     * since the mark are left for the caller to pop.
+     *
+     * @return The trail size at the removed mark.
+     */
+    public int popMark() {
+        int slotMark = slotMarks[--depth];
+        while (slots > slotMark) {
+            slots--;
+            slotArrays[slots][slotIndices[slots]] = slotValues[slots];
+            slotArrays[slots] = null;
+        }
+        int longSlotMark = longSlotMarks[depth];
+        while (longSlots > longSlotMark) {
+            longSlots--;
+            longSlotArrays[longSlots][longSlotIndices[longSlots]] = longSlotValues[longSlots];
+            longSlotArrays[longSlots] = null;
+        }
+        return marks[depth];
+    }
+
+    /**
+     * Records that a value has been removed from the domain of a variable.
+     *
+     * @param var The variable that was pruned.
+     * @param val The value that was removed.
+     */
+    public void record(BinaryVariable var, int val) {
+        if (size == vars.length) {
+            vars = Arrays.copyOf(vars, size * 2);
+            vals = Arrays.copyOf(vals, size * 2);
+        }
+        vars[size] = var;
+        vals[size++] = val;
+        if (size > peakSize) {
+            peakSize = size;
+        }
+    }
+
+    /**
+     * Saves the contents of an array slot before it is overwritten.
+     *
+     * @param array The array.
+     * @param index The index of the slot.
+     */
+    public void save(int[] array, int index) {
+        if (slots == slotArrays.length) {
+            slotArrays = Arrays.copyOf(slotArrays, slots * 2);
+            slotIndices = Arrays.copyOf(slotIndices, slots * 2);
+            slotValues = Arrays.copyOf(slotValues, slots * 2);
+        }
+        slotArrays[slots] = array;
+        slotIndices[slots] = index;
+        slotValues[slots++] = array[index];
+    }
+
+    /**
+     * Saves the contents of a long array slot before it is overwritten.
+     *
+     * @param array The array.
+     * @param index The index of the slot.
+     */
+    public void save(long[] array, int index) {
+        if (longSlots == longSlotArrays.length) {
+            longSlotArrays = Arrays.copyOf(longSlotArrays, longSlots * 2);
+            longSlotIndices = Arrays.copyOf(longSlotIndices, longSlots * 2);
+            longSlotValues = Arrays.copyOf(longSlotValues, longSlots * 2);
+        }
+        longSlotArrays[longSlots] = array;
+        longSlotIndices[longSlots] = index;
+        longSlotValues[longSlots++] = array[index];
+    }
+
+    /**
+     * Restores the most recently recorded removal.
+     *
+     * @return The variable whose value was restored.
+     */
+    public BinaryVariable pop() {
+        BinaryVariable var = vars[--size];
+        vars[size] = null;
+        var.add(vals[size]);
+        return var;
+    }
+}
@@ -0,0 +1,50 @@
+package csp;
+
+public enum ValueOrdering {
+    ASCENDING,
+    DESCENDING,
+    MIN_CONFLICTS,
+    RANDOM;
+
+	/**
+	 * Returns the value ordering corresponding to the given type.
+	 * 
+	 * @param type The type of ordering.
+	 * @return The value ordering.
+	 */
+	public static ValueOrdering getOrdering(int type) {
+        switch (type) {
+            case 0:
+                return ValueOrdering.ASCENDING;
+            case 1:
+                return ValueOrdering.DESCENDING;
+            case 2:
+                return ValueOrdering.MIN_CONFLICTS;
+            case 3:
+                return ValueOrdering.RANDOM;
+            default:
+                throw new IllegalArgumentException("Invalid value ordering type.");
+        }
+    }
+
+    /**
+     * Returns a string describing the name of the given ordering.
+     * 
+     * @param ordering The ordering.
+     * @return The name of the ordering.
+     */
+    public static String toString(ValueOrdering ordering) {
+        switch (ordering) {
+            case ASCENDING:
+                return "Ascending";
+            case DESCENDING:
+                return "Descending";
+            case MIN_CONFLICTS:
+                return "Min Conflicts";
+            case RANDOM:
+                return "Random";
+            default:
+                throw new IllegalArgumentException("Invalid value ordering type.");
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package csp;
+
+import java.util.Arrays;
+import java.util.Comparator;
+
+/**
+ * Indexed binary min-heap of variables. The position of every variable in the heap
+ * is tracked by its order, so a variable can be removed or moved after its key (such
+ * as its domain size) has changed in O(log n).
+ */
+public final class VariableHeap {
+
+    // The comparator used to order the variables.
+    private final Comparator<BinaryVariable> comparator;
+
+    // The heap of variables.
+    private final BinaryVariable[] heap;
+
+    // The position of each variable in the heap, indexed by order, or -1 if absent.
+    private final int[] positions;
+
+    // The number of variables in the heap.
+    private int size;
+
+    /**
+     * Creates a new empty heap.
+     *
+     * @param noVariables The number of variables in the problem.
+     * @param comparator The comparator used to order the variables.
+     */
+    public VariableHeap(int noVariables, Comparator<BinaryVariable> comparator) {
+        this.comparator = comparator;
+        heap = new BinaryVariable[noVariables];
+        positions = new int[noVariables];
+        Arrays.fill(positions, -1);
+        size = 0;
+    }
+
+    /**
+     * Gets the number of variables in the heap.
+     *
+     * @return The number of variables in the heap.
+     */
+    public int size() {
+        return size;
+    }
+
+    /**
+     * Gets the variable at a position in the heap, for scanning every variable.
+     *
+     * @param i The position, from 0 to size() - 1.
+     * @return The variable at the position.
+     */
+    public BinaryVariable get(int i) {
+        return heap[i];
+    }
+
+    /**
+     * Checks if the heap is empty.
+     *
+     * @return True if the heap is empty, false otherwise.
+     */
+    public boolean isEmpty() {
+        return size == 0;
+    }
+
+    /**
+     * Checks if a variable is in the heap.
+     *
+     * @param var The variable.
+     * @return True if the variable is in the heap, false otherwise.
+     */
+    public boolean contains(BinaryVariable var) {
+        return positions[var.order()] >= 0;
+    }
+
+    /**
+     * Gets the smallest variable in the heap.
+     *
+     * @return The smallest variable, or null if the heap is empty.
+     */
+    public BinaryVariable peek() {
+        return size == 0 ? null : heap[0];
+    }
+
+    /**
+     * Adds a variable to the heap.
+     *
+     * @param var The variable to be added.
+     */
+    public void add(BinaryVariable var) {
+        heap[size] = var;
+        positions[var.order()] = size;
+        siftUp(size++);
+    }
+
+    /**
+     * Removes a variable from the heap.
+     *
+     * @param var The variable to be removed.
+     */
+    public void remove(BinaryVariable var) {
+        int i = positions[var.order()];
+        positions[var.order()] = -1;
+        BinaryVariable last = heap[--size];
+        heap[size] = null;
+        if (i < size) {
+            heap[i] = last;
+            positions[last.order()] = i;
+            siftDown(i);
+            siftUp(positions[last.order()]);
+        }
+    }
+
+    /**
+     * Restores the position of a variable after its key has changed.
+     *
+     * @param var The variable whose key has changed.
+     */
+    public void update(BinaryVariable var) {
+        int i = positions[var.order()];
+        if (i >= 0) {
+            siftUp(i);
+            siftDown(positions[var.order()]);
+        }
+    }
+
+    /**
+     * Moves the variable at a position up until its parent is not larger.
+     *
+     * @param i The position.
+     */
+    private void siftUp(int i) {
+        BinaryVariable var = heap[i];
+        while (i > 0) {
+            int parent = (i - 1) >>> 1;
+            if (comparator.compare(heap[parent], var) <= 0) {
+                break;
+            }
+            move(heap[parent], i);
+            i = parent;
+        }
+        move(var, i);
+    }
+
+    /**
+     * Moves the variable at a position down until neither child is smaller.
+     *
+     * @param i The position.
+     */
+    private void siftDown(int i) {
+        BinaryVariable var = heap[i];
+        while (2 * i + 1 < size) {
+            int child = 2 * i + 1;
+            if (child + 1 < size && comparator.compare(heap[child + 1], heap[child]) < 0) {
+                child++;
+            }
+            if (comparator.compare(var, heap[child]) <= 0) {
+                break;
+            }
+            move(heap[child], i);
+            i = child;
+        }
+        move(var, i);
+    }
+
+    /**
+     * Places a variable at a position.
+     *
+     * @param var The variable.
+     * @param i The position.
+     */
+    private void move(BinaryVariable var, int i) {
+        heap[i] = var;
+        positions[var.order()] = i;
+    }
+}
@@ -1,8 +1,12 @@
+package csp;
+
 import java.util.Comparator;
 
 public enum VariableOrdering {
     ASCENDING,
-    SMALLEST_DOMAIN_FIRST;
+    SMALLEST_DOMAIN_FIRST,
+    DOM_WDEG,
+    DOM_DDEG;
 
 	/**
 	 * Returns the variable ordering corresponding to the given type.
@@ -16,6 +20,10 @@ public enum VariableOrdering {
                 return VariableOrdering.ASCENDING;
             case 1:
                 return VariableOrdering.SMALLEST_DOMAIN_FIRST;
+            case 2:
+                return VariableOrdering.DOM_WDEG;
+            case 3:
+                return VariableOrdering.DOM_DDEG;
             default:
                 throw new IllegalArgumentException("Invalid variable ordering type.");
         }
@@ -33,6 +41,10 @@ public enum VariableOrdering {
                 return "Ascending";
             case SMALLEST_DOMAIN_FIRST:
                 return "Smallest Domain First";
+            case DOM_WDEG:
+                return "Domain Over Weighted Degree";
+            case DOM_DDEG:
+                return "Domain Over Dynamic Degree";
             default:
                 throw new IllegalArgumentException("Invalid variable ordering type.");
         }